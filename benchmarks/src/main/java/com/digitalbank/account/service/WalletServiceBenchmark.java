@@ -0,0 +1,102 @@
+package com.digitalbank.account.service;
+
+import com.digitalbank.account.WalletServiceApplication;
+import com.digitalbank.account.entity.Wallet;
+import com.digitalbank.account.model.WalletCreate;
+import com.digitalbank.account.model.WalletResponse;
+import com.digitalbank.account.model.WalletTopup;
+import com.digitalbank.account.model.common.WalletStatus;
+import com.digitalbank.benchmark.EmbeddedService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-wallet debit and credit through WalletService on H2: the ledger entry insert and the commit, plus
+ * wallet lock, row lock and ledger balance read for debits. Operations pick a wallet at random out of
+ * {@code wallets}; fewer wallets and more threads show lock contention on debits.
+ *
+ *   java -jar target/benchmarks.jar WalletServiceBenchmark -p wallets=10,1000 -t 4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WalletServiceBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"1000"})
+    public int wallets;
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private WalletService target;
+    private Wallet wallet;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedService.start(WalletServiceApplication.class, "wallet", Map.of(
+                "user.service.url", "http://localhost:8081"
+        ));
+        walletService = context.getBean(WalletService.class);
+        target = (WalletService) AopProxyUtils.getSingletonTarget(walletService);
+
+        for (long userId = 1; userId <= wallets; userId++) {
+            WalletCreate create = new WalletCreate();
+            create.setUserId(userId);
+            walletService.createWallet(create);
+
+            WalletTopup topup = new WalletTopup();
+            topup.setUserId(userId);
+            topup.setAmount(OPENING_BALANCE);
+            walletService.topUp(topup);
+        }
+        wallet = sampleWallet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deductBalance() {
+        walletService.deductBalance(randomUser(), AMOUNT, null);
+    }
+
+    @Benchmark
+    public void addBalance() {
+        walletService.addBalance(randomUser(), AMOUNT, null);
+    }
+
+    @Benchmark
+    public WalletResponse mapToResponseDto() {
+        return target.mapToResponseDto(wallet);
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, wallets + 1);
+    }
+
+    static Wallet sampleWallet() {
+        Wallet wallet = new Wallet();
+        wallet.setId(42L);
+        wallet.setUserId(1L);
+        wallet.setBalance(new BigDecimal("2500000.00"));
+        wallet.setCurrency("IDR");
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet.setCreatedAt(LocalDateTime.now());
+        wallet.setUpdatedAt(LocalDateTime.now());
+        return wallet;
+    }
+}
@@ -0,0 +1,39 @@
+package com.digitalbank.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Starts one service's Spring context, without a web server, against a private in-memory H2 database
+// migrated by the service's own Flyway scripts. All service jars share this classpath, so only one of their
+// application.properties files would be visible; none is read and callers pass what the service needs.
+public final class EmbeddedService {
+
+    private EmbeddedService() {
+    }
+
+    public static ConfigurableApplicationContext start(Class<?> application, String migrations,
+                                                       Map<String, Object> properties,
+                                                       ApplicationContextInitializer<?>... initializers) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("spring.config.name", "benchmark");
+        defaults.put("spring.main.banner-mode", "off");
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("spring.datasource.url", "jdbc:h2:mem:" + migrations + ";DB_CLOSE_DELAY=-1");
+        defaults.put("spring.datasource.username", "sa");
+        defaults.put("spring.datasource.password", "");
+        defaults.put("spring.jpa.hibernate.ddl-auto", "validate");
+        defaults.put("spring.flyway.locations", "classpath:db/migration/" + migrations + "/h2");
+        defaults.putAll(properties);
+
+        return new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .properties(defaults)
+                .initializers(initializers)
+                .run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.digitalbank.benchmark;
+
+import com.digitalbank.account.model.WalletResponse;
+import com.digitalbank.account.model.common.WalletStatus;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.model.common.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies of the list endpoints (transaction history, wealthy wallets) written the way the services
+ * write them: an ObjectMapper configured like Spring Boot's, ISO-8601 dates included.
+ *
+ *   java -jar target/benchmarks.jar JsonSerializationBenchmark -p size=10,500
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<TransactionResponse> transactions;
+    private List<WalletResponse> wallets;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        transactions = new ArrayList<>(size);
+        wallets = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            TransactionResponse transaction = new TransactionResponse();
+            transaction.setId(i);
+            transaction.setTransactionRef("TXN" + (1_700_000_000_000L + i) + "ABCDEF12");
+            transaction.setSenderUserId(i);
+            transaction.setReceiverUserId(i + 1);
+            transaction.setAmount(BigDecimal.valueOf(125_000_00 + i, 2));
+            transaction.setCurrency("IDR");
+            transaction.setType(TransactionType.TRANSFER);
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setDescription("Payment " + i);
+            transaction.setCreatedAt(now);
+            transaction.setCompletedAt(now);
+            transactions.add(transaction);
+
+            WalletResponse wallet = new WalletResponse();
+            wallet.setId(i);
+            wallet.setUserId(i);
+            wallet.setBalance(BigDecimal.valueOf(2_500_000_00 + i, 2));
+            wallet.setCurrency("IDR");
+            wallet.setStatus(WalletStatus.ACTIVE);
+            wallet.setCreatedAt(now);
+            wallet.setUpdatedAt(now);
+            wallets.add(wallet);
+        }
+    }
+
+    @Benchmark
+    public byte[] transactionResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public byte[] walletResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(wallets);
+    }
+}
@@ -0,0 +1,54 @@
+package com.digitalbank.benchmark;
+
+import com.digitalbank.user.service.PinVerifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a PIN check per BCrypt cost factor, with and without the verification cache.
+ *
+ * uncachedCheck is the rate one core sustains for first or failed checks at that cost; cachedCheck is the
+ * rate for repeat transfers inside the cache window. Pick the highest cost whose uncached rate, times the
+ * cores given to user-service, still covers the expected rate of cache misses.
+ *
+ *   java -jar target/benchmarks.jar PinVerificationBenchmark -p cost=8,10,12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PinVerificationBenchmark {
+
+    private static final String PIN = "123456";
+
+    @Param({"8", "10", "12"})
+    public int cost;
+
+    private PinVerifier verifier;
+    private String storedPin;
+
+    @Setup
+    public void setUp() {
+        verifier = new PinVerifier(cost, TimeUnit.MINUTES.toMillis(5), 100_000);
+        storedPin = verifier.hash(PIN);
+        verifier.matches(1L, PIN, storedPin);
+    }
+
+    @Benchmark
+    public String hash() {
+        return verifier.hash(PIN);
+    }
+
+    @Benchmark
+    public boolean uncachedCheck() {
+        return verifier.matchesStored(PIN, storedPin);
+    }
+
+    @Benchmark
+    public boolean cachedCheck() {
+        return verifier.matches(1L, PIN, storedPin);
+    }
+}
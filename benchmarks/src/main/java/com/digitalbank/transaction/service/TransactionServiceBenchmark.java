@@ -0,0 +1,144 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.benchmark.EmbeddedService;
+import com.digitalbank.transaction.TransactionServiceApplication;
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.model.common.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionService.transfer() end to end inside transaction-service, on H2, with the user-service and
+ * wallet-service clients stubbed: every user is active and cached, the PIN check still hops through the
+ * inter-service executor as it does in production, and the wallet transfer succeeds without a round trip.
+ * What remains is validation, the two transaction writes, the rollup upserts and the commit.
+ *
+ *   java -jar target/benchmarks.jar TransactionServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionServiceBenchmark {
+
+    private static final int USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private TransactionService target;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedService.start(TransactionServiceApplication.class, "transaction", Map.of(
+                "user.service.url", "http://localhost:8081",
+                "wallet.service.url", "http://localhost:8082",
+                "client.http.connect-timeout-ms", 1000,
+                "client.http.read-timeout-ms", 5000,
+                "client.http.max-connections", 200,
+                "client.http.max-connections-per-route", 100,
+                "client.http.keep-alive-ms", 30000,
+                "client.async.pool-size", 32,
+                "client.async.queue-capacity", 1000
+        ), ctx -> ctx.getBeanFactory().addBeanPostProcessor(new StubClients(ctx)));
+        transactionService = context.getBean(TransactionService.class);
+        target = (TransactionService) AopProxyUtils.getSingletonTarget(transactionService);
+        transaction = sampleTransaction();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sender = random.nextLong(1, USERS + 1);
+        long receiver = sender % USERS + 1;
+
+        TransferRequest request = new TransferRequest();
+        request.setSenderUserId(sender);
+        request.setReceiverUserId(receiver);
+        request.setAmount(BigDecimal.valueOf(random.nextInt(1, 100_000), 2));
+        request.setPin("123456");
+        request.setDescription("benchmark");
+        return transactionService.transfer(request);
+    }
+
+    @Benchmark
+    public TransactionResponse mapToResponseDto() {
+        return target.mapToResponseDto(transaction);
+    }
+
+    static Transaction sampleTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setId(42L);
+        transaction.setTransactionRef("TXN1700000000000ABCDEF12");
+        transaction.setSenderUserId(1L);
+        transaction.setReceiverUserId(2L);
+        transaction.setAmount(new BigDecimal("125000.00"));
+        transaction.setCurrency("IDR");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setDescription("benchmark");
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setCompletedAt(LocalDateTime.now());
+        return transaction;
+    }
+
+    // Swaps the HTTP clients for stubs before TransactionService is wired
+    private static class StubClients implements BeanPostProcessor {
+
+        private final ConfigurableApplicationContext context;
+
+        StubClients(ConfigurableApplicationContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof UserServiceClient) {
+                Executor executor = context.getBean("interServiceExecutor", Executor.class);
+                return new UserServiceClient(new RestTemplateBuilder(), "http://localhost", executor, 1, 1, 1) {
+                    @Override
+                    public CompletableFuture<Map<Long, String>> findInvalidUsersAsync(Collection<Long> userIds) {
+                        return CompletableFuture.completedFuture(Map.of());
+                    }
+
+                    @Override
+                    public CompletableFuture<Boolean> validatePinAsync(Long userId, String pin) {
+                        return CompletableFuture.supplyAsync(() -> true, executor);
+                    }
+                };
+            }
+            if (bean instanceof WalletServiceClient) {
+                return new WalletServiceClient(new RestTemplateBuilder(), "http://localhost") {
+                    @Override
+                    public void transferBalance(Long senderUserId, Long receiverUserId, BigDecimal amount, String operationId) {
+                    }
+                };
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.digitalbank.user.service;
+
+import com.digitalbank.user.entity.User;
+import com.digitalbank.user.model.UserResponse;
+import com.digitalbank.user.model.common.UserStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping in UserService; it touches no collaborator, so no context is started.
+ *
+ *   java -jar target/benchmarks.jar UserServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private UserService userService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, null);
+
+        user = new User();
+        user.setId(42L);
+        user.setEmail("jane.doe@example.com");
+        user.setFullName("Jane Doe");
+        user.setPhoneNumber("+6281234567890");
+        user.setPin("$2a$10$abcdefghijklmnopqrstuuABCDEFGHIJKLMNOPQRSTUVWXYZ01234");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public UserResponse mapToResponseDto() {
+        return userService.mapToResponseDto(user);
+    }
+}
@@ -0,0 +1,235 @@
+package com.digitalbank.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+// Seeds users and wallets through the public APIs, then runs the weighted mix from a fixed set of client
+// threads. Without a rate every thread sends back to back (closed loop). With a rate each thread follows its
+// own fixed schedule and latency is measured from the scheduled send time, so a stalled service shows up as
+// queueing delay instead of silently lowering the offered load (coordinated omission).
+final class LoadDriver {
+    
+    private static final String PIN = "123456";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final LoadTestOptions options;
+    private final LocalServices services;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private long[] userIds;
+    
+    LoadDriver(LoadTestOptions options, LocalServices services) {
+        this.options = options;
+        this.services = services;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        
+        operations = options.mix.keySet().toArray(new Operation[0]);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new OperationStats());
+        }
+    }
+    
+    // Registers each user, opens a wallet and tops it up to the opening balance
+    void seed() throws InterruptedException {
+        userIds = new long[options.users];
+        ExecutorService pool = Executors.newFixedThreadPool(options.threads);
+        try {
+            List<Future<?>> pending = new ArrayList<>();
+            for (int i = 0; i < options.users; i++) {
+                int index = i;
+                pending.add(pool.submit(() -> {
+                    userIds[index] = seedUser(index);
+                    return null;
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seeding failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private long seedUser(int index) throws IOException, InterruptedException {
+        Map<String, Object> registration = Map.of(
+                "email", "load" + index + "@example.com",
+                "fullName", "Load User " + index,
+                "phoneNumber", String.format("+62810%09d", index),
+                "pin", PIN);
+        JsonNode user = objectMapper.readTree(
+                send(post(services.userServiceUrl() + "/api/users/register", registration)));
+        long userId = user.get("id").asLong();
+        
+        send(post(services.walletServiceUrl() + "/api/wallets/create", Map.of("userId", userId, "currency", "IDR")));
+        send(post(services.walletServiceUrl() + "/api/wallets/topup",
+                Map.of("userId", userId, "amount", BigDecimal.valueOf(options.openingBalance))));
+        return userId;
+    }
+    
+    Map<Operation, OperationStats> run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < options.threads; i++) {
+            Thread client = new Thread(() -> drive(end), "load-client-" + i);
+            client.start();
+            clients.add(client);
+        }
+        
+        // Report at fixed intervals and exactly at the end of warmup, so warmup never leaks into the results
+        TreeSet<Long> ticks = new TreeSet<>();
+        for (long tick = start + options.reportInterval.toNanos(); tick < end; tick += options.reportInterval.toNanos()) {
+            ticks.add(tick);
+        }
+        ticks.add(measureFrom);
+        ticks.add(end);
+        
+        long previous = start;
+        for (long tick : ticks) {
+            sleepUntil(tick);
+            if (tick == end) {
+                for (Thread client : clients) {
+                    client.join();
+                }
+            }
+            report(tick - start, tick - previous, tick > measureFrom);
+            previous = tick;
+        }
+        return stats;
+    }
+    
+    private void drive(long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long period = options.rate > 0 ? (long) (options.threads * 1e9 / options.rate) : 0;
+        long next = System.nanoTime() + (period > 0 ? random.nextLong(period) : 0);
+        
+        while (true) {
+            long scheduled = period > 0 ? next : System.nanoTime();
+            if (scheduled >= end) {
+                return;
+            }
+            if (period > 0) {
+                sleepUntil(scheduled);
+                next += period;
+            }
+            
+            Operation operation = pick(random);
+            OperationStats operationStats = stats.get(operation);
+            try {
+                send(request(operation, random));
+                operationStats.recordSuccess(System.nanoTime() - scheduled);
+            } catch (Exception e) {
+                operationStats.recordFailure();
+            }
+        }
+    }
+    
+    private void report(long elapsedNanos, long intervalNanos, boolean measuring) {
+        Histogram all = new Histogram(3);
+        for (OperationStats operationStats : stats.values()) {
+            all.add(operationStats.rollInterval(measuring));
+        }
+        System.out.printf("[%4ds] %-7s %8.0f req/s   p50 %8.2f ms   p99 %8.2f ms   max %8.2f ms%n",
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos), measuring ? "measure" : "warmup",
+                all.getTotalCount() * 1e9 / intervalNanos,
+                millis(all.getValueAtPercentile(50)), millis(all.getValueAtPercentile(99)), millis(all.getMaxValue()));
+    }
+    
+    private Operation pick(ThreadLocalRandom random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+    
+    private HttpRequest request(Operation operation, ThreadLocalRandom random) throws IOException {
+        long userId = userIds[random.nextInt(userIds.length)];
+        String transactions = services.transactionServiceUrl() + "/api/transactions";
+        return switch (operation) {
+            case TRANSFER, ASYNC_TRANSFER -> {
+                long receiverId = userId;
+                while (receiverId == userId) {
+                    receiverId = userIds[random.nextInt(userIds.length)];
+                }
+                String path = operation == Operation.TRANSFER ? "/transfer" : "/transfer/async";
+                yield post(transactions + path, Map.of(
+                        "senderUserId", userId,
+                        "receiverUserId", receiverId,
+                        "amount", BigDecimal.valueOf(random.nextInt(100, 10_001), 2),
+                        "pin", PIN,
+                        "description", "load test"));
+            }
+            case TOP_UP -> post(services.walletServiceUrl() + "/api/wallets/topup", Map.of(
+                    "userId", userId,
+                    "amount", BigDecimal.valueOf(random.nextInt(100, 100_001), 2)));
+            case HISTORY -> get(transactions + "/history/" + userId + "?limit=50");
+            case SUMMARY -> get(transactions + "/summary/" + userId + "?days=30");
+            case TOP_RECEIVERS -> get(transactions + "/top-receivers/" + userId + "?limit=5");
+            case DAILY_VOLUME -> get(transactions + "/daily-volume?days=7");
+        };
+    }
+    
+    private HttpRequest post(String url, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+    
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+    
+    private byte[] send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 300) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode()
+                    + ": " + new String(response.body()));
+        }
+        return response.body();
+    }
+    
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+    
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,91 @@
+package com.digitalbank.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.digitalbank.loadtest.LoadDriver.millis;
+
+// Boots user-service, wallet-service and transaction-service on an in-memory database, seeds users and
+// wallets, drives the configured mix and prints throughput and latency percentiles per endpoint.
+//
+//   java -jar target/load-test-0.0.1-SNAPSHOT.jar users=2000 threads=64 duration=120
+public final class LoadTest {
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        
+        try (LocalServices services = new LocalServices(options.basePort)) {
+            long started = System.nanoTime();
+            services.start();
+            System.out.printf("Services up in %.1f s%n", (System.nanoTime() - started) / 1e9);
+            
+            LoadDriver driver = new LoadDriver(options, services);
+            started = System.nanoTime();
+            driver.seed();
+            System.out.printf("Seeded %d users and wallets in %.1f s%n", options.users, (System.nanoTime() - started) / 1e9);
+            
+            System.out.printf("Running %s for %d s after %d s warmup on %d threads%n",
+                    options.rate > 0 ? String.format("%.0f req/s", options.rate) : "closed loop",
+                    options.duration.toSeconds(), options.warmup.toSeconds(), options.threads);
+            Map<Operation, OperationStats> results = driver.run();
+            
+            printSummary(results, options.duration.toNanos());
+            if (!options.histogramDirectory.isEmpty()) {
+                writeHistograms(results, Path.of(options.histogramDirectory));
+            }
+        }
+        System.exit(0);
+    }
+    
+    private static void printSummary(Map<Operation, OperationStats> results, long durationNanos) {
+        System.out.println();
+        System.out.printf("%-44s %9s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Req/s", "Errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms");
+        
+        Histogram all = new Histogram(3);
+        long allFailures = 0;
+        for (Map.Entry<Operation, OperationStats> entry : results.entrySet()) {
+            Histogram histogram = entry.getValue().measured();
+            printRow(entry.getKey().endpoint(), histogram, entry.getValue().measuredFailures(), durationNanos);
+            all.add(histogram);
+            allFailures += entry.getValue().measuredFailures();
+        }
+        printRow("All", all, allFailures, durationNanos);
+    }
+    
+    private static void printRow(String label, Histogram histogram, long failures, long durationNanos) {
+        System.out.printf("%-44s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                label, histogram.getTotalCount(), histogram.getTotalCount() * 1e9 / durationNanos, failures,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+    
+    // Standard HdrHistogram percentile output in milliseconds, for plotting or comparing runs
+    private static void writeHistograms(Map<Operation, OperationStats> results, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, OperationStats> entry : results.entrySet()) {
+            Path file = directory.resolve(entry.getKey().key() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().measured().outputPercentileDistribution(out, 1e6);
+            }
+        }
+        System.out.println("Histograms written to " + directory.toAbsolutePath());
+    }
+}
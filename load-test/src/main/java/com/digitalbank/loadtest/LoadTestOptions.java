@@ -0,0 +1,92 @@
+package com.digitalbank.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Command line: key=value pairs, every key optional, e.g. users=5000 threads=64 duration=120 rate=2000
+final class LoadTestOptions {
+    
+    static final String USAGE = """
+            Options (key=value):
+              users=1000         users and wallets seeded before the run
+              threads=32         concurrent clients
+              warmup=15          seconds of load before measuring starts
+              duration=60        measured seconds
+              rate=0             target requests/s over all threads; 0 = each thread sends as fast as it can
+              mix=transfer:70,topup:10,history:12,summary:4,top-receivers:2,daily-volume:2
+                                 (also: async-transfer)
+              balance=1000000    opening balance of every seeded wallet
+              port=18081         user-service port; wallet-service and transaction-service take the next two
+              report=10          seconds between progress lines
+              histograms=        directory for one .hgrm percentile file per operation (not written if empty)
+            """;
+    
+    private static final Set<String> KEYS = Set.of(
+            "users", "threads", "warmup", "duration", "rate", "mix", "balance", "port", "report", "histograms");
+    
+    final int users;
+    final int threads;
+    final Duration warmup;
+    final Duration duration;
+    final double rate;
+    final Map<Operation, Integer> mix;
+    final long openingBalance;
+    final int basePort;
+    final Duration reportInterval;
+    final String histogramDirectory;
+    
+    private LoadTestOptions(Map<String, String> values) {
+        users = Integer.parseInt(values.getOrDefault("users", "1000"));
+        threads = Integer.parseInt(values.getOrDefault("threads", "32"));
+        warmup = Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "15")));
+        duration = Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60")));
+        rate = Double.parseDouble(values.getOrDefault("rate", "0"));
+        mix = parseMix(values.getOrDefault("mix",
+                "transfer:70,topup:10,history:12,summary:4,top-receivers:2,daily-volume:2"));
+        openingBalance = Long.parseLong(values.getOrDefault("balance", "1000000"));
+        basePort = Integer.parseInt(values.getOrDefault("port", "18081"));
+        reportInterval = Duration.ofSeconds(Long.parseLong(values.getOrDefault("report", "10")));
+        histogramDirectory = values.getOrDefault("histograms", "");
+        
+        if (users < 2) {
+            throw new IllegalArgumentException("users must be at least 2");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+    }
+    
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, separator);
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown option: " + key);
+            }
+            values.put(key, arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+    
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,98 @@
+package com.digitalbank.loadtest;
+
+import com.digitalbank.account.WalletServiceApplication;
+import com.digitalbank.transaction.TransactionServiceApplication;
+import com.digitalbank.user.UserServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.*;
+
+// The three services inside this JVM, each with its own Spring context and web server, all on one in-memory
+// H2 database the way they share digitalbank_db in production. Every service starts from the
+// application.properties in its own jar; only the database, ports, service URLs and SQL logging are replaced.
+// JVM system properties still win, so -Dwallet.cache.ttl-ms=... tunes a service for a run.
+final class LocalServices implements AutoCloseable {
+    
+    private static final String DATABASE_URL =
+            "jdbc:h2:mem:digitalbank_db;DB_CLOSE_DELAY=-1;MODE=MSSQLServer;LOCK_TIMEOUT=10000";
+    
+    private final int basePort;
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    
+    LocalServices(int basePort) {
+        this.basePort = basePort;
+    }
+    
+    String userServiceUrl() {
+        return "http://localhost:" + basePort;
+    }
+    
+    String walletServiceUrl() {
+        return "http://localhost:" + (basePort + 1);
+    }
+    
+    String transactionServiceUrl() {
+        return "http://localhost:" + (basePort + 2);
+    }
+    
+    // Dependencies first: transaction-service warms its caches from the database on startup
+    void start() throws IOException {
+        start(UserServiceApplication.class, basePort);
+        start(WalletServiceApplication.class, basePort + 1);
+        start(TransactionServiceApplication.class, basePort + 2);
+    }
+    
+    private void start(Class<?> application, int port) throws IOException {
+        Properties properties = ownProperties(application);
+        properties.setProperty("spring.config.name", "load-test");
+        properties.setProperty("server.port", String.valueOf(port));
+        properties.setProperty("spring.datasource.url", DATABASE_URL);
+        properties.setProperty("spring.datasource.username", "sa");
+        properties.setProperty("spring.datasource.password", "");
+        properties.setProperty("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.remove("spring.jpa.properties.hibernate.dialect");
+        properties.setProperty("spring.jpa.show-sql", "false");
+        properties.setProperty("spring.main.banner-mode", "off");
+        properties.setProperty("logging.level.root", "WARN");
+        properties.setProperty("user.service.url", userServiceUrl());
+        properties.setProperty("wallet.service.url", walletServiceUrl());
+        
+        contexts.add(new SpringApplicationBuilder(application)
+                .properties(properties)
+                .run());
+    }
+    
+    // Every service jar has an application.properties at its root, so pick the one next to the application class
+    private static Properties ownProperties(Class<?> application) throws IOException {
+        String location = withoutJarScheme(application.getProtectionDomain().getCodeSource().getLocation());
+        Enumeration<URL> candidates = application.getClassLoader().getResources("application.properties");
+        while (candidates.hasMoreElements()) {
+            URL candidate = candidates.nextElement();
+            if (withoutJarScheme(candidate).startsWith(location)) {
+                Properties properties = new Properties();
+                try (InputStream in = candidate.openStream()) {
+                    properties.load(in);
+                }
+                return properties;
+            }
+        }
+        throw new IllegalStateException("No application.properties found for " + application.getSimpleName());
+    }
+    
+    private static String withoutJarScheme(URL url) {
+        String value = url.toString();
+        value = value.startsWith("jar:") ? value.substring("jar:".length()) : value;
+        return value.endsWith("!/") ? value.substring(0, value.length() - 2) : value;
+    }
+    
+    @Override
+    public void close() {
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.digitalbank.loadtest;
+
+// One endpoint the load mix can call; results are reported per operation
+enum Operation {
+    
+    TRANSFER("transfer", "POST /api/transactions/transfer"),
+    ASYNC_TRANSFER("async-transfer", "POST /api/transactions/transfer/async"),
+    TOP_UP("topup", "POST /api/wallets/topup"),
+    HISTORY("history", "GET /api/transactions/history/{userId}"),
+    SUMMARY("summary", "GET /api/transactions/summary/{userId}"),
+    TOP_RECEIVERS("top-receivers", "GET /api/transactions/top-receivers/{userId}"),
+    DAILY_VOLUME("daily-volume", "GET /api/transactions/daily-volume");
+    
+    private final String key;
+    private final String endpoint;
+    
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+    
+    String key() {
+        return key;
+    }
+    
+    String endpoint() {
+        return endpoint;
+    }
+    
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + key);
+    }
+}
@@ -0,0 +1,46 @@
+package com.digitalbank.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencies (nanoseconds) and failures of one operation. Client threads record into a Recorder; the
+// reporting thread periodically takes the interval and, once warmup is over, adds it to the measured total.
+final class OperationStats {
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder failures = new LongAdder();
+    private final Histogram measured = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+    private long measuredFailures;
+    
+    void recordSuccess(long latencyNanos) {
+        recorder.recordValue(latencyNanos);
+    }
+    
+    void recordFailure() {
+        failures.increment();
+    }
+    
+    // Called by the reporting thread only
+    Histogram rollInterval(boolean measuring) {
+        interval = recorder.getIntervalHistogram(interval);
+        long intervalFailures = failures.sumThenReset();
+        if (measuring) {
+            measured.add(interval);
+            measuredFailures += intervalFailures;
+        }
+        return interval;
+    }
+    
+    Histogram measured() {
+        return measured;
+    }
+    
+    long measuredFailures() {
+        return measuredFailures;
+    }
+}
@@ -0,0 +1,22 @@
+package com.digitalbank.transaction.client;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+// Adds a target.service tag to http.client.requests, so outbound latency splits by service as well as by
+// uri template, whatever host name the service URL uses
+public class TargetServiceObservationConvention extends DefaultClientRequestObservationConvention {
+    
+    private final KeyValue targetService;
+    
+    public TargetServiceObservationConvention(String targetService) {
+        this.targetService = KeyValue.of("target.service", targetService);
+    }
+    
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(targetService);
+    }
+}
@@ -0,0 +1,109 @@
+package com.digitalbank.transaction.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Component
+public class UserServiceClient {
+    
+    // Cached for ids user-service does not know, so repeated bad ids do not reach it every time
+    private static final String UNKNOWN_USER = "UNKNOWN";
+    private static final String ACTIVE = "ACTIVE";
+    private static final int MAX_IDS_PER_LOOKUP = 1000;
+    
+    private final RestTemplate restTemplate;
+    private final Executor executor;
+    private final Cache<Long, String> userStatuses;
+    
+    public UserServiceClient(RestTemplateBuilder restTemplateBuilder,
+                             @Value("${user.service.url}") String userServiceUrl,
+                             @Qualifier("interServiceExecutor") Executor executor,
+                             @Value("${client.user-cache.max-size:100000}") long cacheMaxSize,
+                             @Value("${client.user-cache.ttl-ms:60000}") long ttlMillis,
+                             @Value("${client.user-cache.negative-ttl-ms:5000}") long negativeTtlMillis) {
+        this.restTemplate = restTemplateBuilder.rootUri(userServiceUrl)
+                .additionalCustomizers(restTemplate -> restTemplate.setObservationConvention(
+                        new TargetServiceObservationConvention("user-service")))
+                .build();
+        this.executor = executor;
+        this.userStatuses = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.<Long, String>creating((userId, status) -> Duration.ofMillis(
+                        UNKNOWN_USER.equals(status) ? negativeTtlMillis : ttlMillis)))
+                .build();
+    }
+    
+    // Error message per id that is unknown or not active; ids that may transact are absent.
+    // Cached ids cost nothing, the rest are fetched together in one status lookup.
+    public Map<Long, String> findInvalidUsers(Collection<Long> userIds) {
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        Map<Long, String> statuses = new HashMap<>(userStatuses.getAllPresent(ids));
+        if (statuses.size() < ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !statuses.containsKey(id)).toList();
+            statuses.putAll(fetchStatuses(missing));
+        }
+        
+        Map<Long, String> errors = new HashMap<>();
+        for (Long id : ids) {
+            String status = statuses.get(id);
+            if (UNKNOWN_USER.equals(status)) {
+                errors.put(id, "User not found: " + id);
+            } else if (!ACTIVE.equals(status)) {
+                errors.put(id, "User is not active: " + id);
+            }
+        }
+        return errors;
+    }
+    
+    public boolean validatePin(Long userId, String pin) {
+        try {
+            Map<String, Object> request = Map.of("userId", userId, "pin", pin);
+            Map response = restTemplate.postForObject("/api/users/validate-pin", request, Map.class);
+            return (Boolean) response.get("valid");
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    // Completes inline when every id is cached, so only a cache miss takes an executor thread
+    public CompletableFuture<Map<Long, String>> findInvalidUsersAsync(Collection<Long> userIds) {
+        if (userStatuses.getAllPresent(userIds).size() == new HashSet<>(userIds).size()) {
+            return CompletableFuture.completedFuture(findInvalidUsers(userIds));
+        }
+        return CompletableFuture.supplyAsync(() -> findInvalidUsers(userIds), executor);
+    }
+    
+    public CompletableFuture<Boolean> validatePinAsync(Long userId, String pin) {
+        return CompletableFuture.supplyAsync(() -> validatePin(userId, pin), executor);
+    }
+    
+    private Map<Long, String> fetchStatuses(List<Long> userIds) {
+        Map<Long, String> fetched = new HashMap<>();
+        for (int from = 0; from < userIds.size(); from += MAX_IDS_PER_LOOKUP) {
+            List<Long> ids = userIds.subList(from, Math.min(from + MAX_IDS_PER_LOOKUP, userIds.size()));
+            Map[] rows;
+            try {
+                rows = restTemplate.postForObject("/api/users/status", ids, Map[].class);
+            } catch (Exception e) {
+                throw new RuntimeException("User lookup failed: " + e.getMessage());
+            }
+            for (Map row : rows) {
+                Long id = ((Number) row.get("id")).longValue();
+                fetched.put(id, Boolean.TRUE.equals(row.get("exists")) ? (String) row.get("status") : UNKNOWN_USER);
+            }
+        }
+        userStatuses.putAll(fetched);
+        return fetched;
+    }
+}
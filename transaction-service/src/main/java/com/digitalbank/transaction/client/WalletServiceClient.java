@@ -0,0 +1,88 @@
+package com.digitalbank.transaction.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class WalletServiceClient {
+    
+    // Gateway statuses mean wallet-service was not reached or did not answer; any other HTTP error is its decision
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(502, 503, 504);
+    
+    private final RestTemplate restTemplate;
+    
+    public WalletServiceClient(RestTemplateBuilder restTemplateBuilder,
+                               @Value("${wallet.service.url}") String walletServiceUrl) {
+        this.restTemplate = restTemplateBuilder.rootUri(walletServiceUrl)
+                .additionalCustomizers(restTemplate -> restTemplate.setObservationConvention(
+                        new TargetServiceObservationConvention("wallet-service")))
+                .build();
+    }
+    
+    // Debit and credit happen atomically on the wallet-service side, balance check included. Errors are not wrapped,
+    // so the caller can tell a refusal from a call that got no answer.
+    public void transferBalance(Long senderUserId, Long receiverUserId, BigDecimal amount, String operationId) {
+        Map<String, Object> request = Map.of(
+            "senderUserId", senderUserId,
+            "receiverUserId", receiverUserId,
+            "amount", amount,
+            "operationId", operationId
+        );
+        restTemplate.postForObject("/api/wallets/transfer", request, Void.class);
+    }
+    
+    // One round trip for a whole chunk; returns the per-item error, null where the transfer went through.
+    // Items carry an operationId, so a chunk whose answer was lost can be sent again; errors are not wrapped.
+    public List<String> transferBatch(List<Map<String, Object>> transfers) {
+        List<Map<String, Object>> results = restTemplate.exchange(
+            "/api/wallets/transfer/batch",
+            HttpMethod.POST,
+            new HttpEntity<>(transfers),
+            new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        ).getBody();
+        
+        List<String> errors = new ArrayList<>(Collections.nCopies(transfers.size(), null));
+        for (Map<String, Object> result : results) {
+            if (!Boolean.TRUE.equals(result.get("success"))) {
+                errors.set(((Number) result.get("index")).intValue(), String.valueOf(result.get("error")));
+            }
+        }
+        return errors;
+    }
+    
+    // Single-sided calls for the transfer saga. The operationId makes a retry a no-op on the wallet-service side,
+    // and errors are not wrapped: the saga tells a rejection (HTTP error) from a failed call (I/O or gateway error).
+    public void debit(Long userId, BigDecimal amount, String operationId) {
+        Map<String, Object> request = Map.of("userId", userId, "amount", amount, "operationId", operationId);
+        restTemplate.postForObject("/api/wallets/deduct", request, Void.class);
+    }
+    
+    public void credit(Long userId, BigDecimal amount, String operationId) {
+        Map<String, Object> request = Map.of("userId", userId, "amount", amount, "operationId", operationId);
+        restTemplate.postForObject("/api/wallets/add", request, Void.class);
+    }
+    
+    // Undoes a debit or credit; an operation that has not arrived yet is voided so it never applies
+    public void reverse(String operationId) {
+        restTemplate.postForObject("/api/wallets/operations/{operationId}/reverse", null, Void.class, operationId);
+    }
+    
+    // True when wallet-service answered with an error: its transaction rolled back and nothing was applied.
+    // Refusals come back as 500 like any other wallet-service error, so only gateway statuses count as unknown.
+    public static boolean isRefusal(Exception e) {
+        return e instanceof HttpStatusCodeException http && !TRANSIENT_STATUSES.contains(http.getStatusCode().value());
+    }
+}
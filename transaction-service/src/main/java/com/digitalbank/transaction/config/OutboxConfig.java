@@ -0,0 +1,24 @@
+package com.digitalbank.transaction.config;
+
+import com.digitalbank.transaction.service.FileTransferEventLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Relayed transfer events always go to the in-memory log; transaction.outbox.file adds a JSON-lines file.
+// A broker adapter is added the same way, as another TransferEventSink bean.
+@Configuration
+public class OutboxConfig {
+    
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("transaction.outbox.file")
+    public FileTransferEventLog fileTransferEventLog(@Value("${transaction.outbox.file}") String file,
+                                                     ObjectMapper objectMapper) throws IOException {
+        return new FileTransferEventLog(Path.of(file), objectMapper);
+    }
+}
@@ -0,0 +1,45 @@
+package com.digitalbank.transaction.config;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.function.Supplier;
+
+// One child span per repository method call, named Repository.method. Calls outside a trace (scheduled jobs,
+// startup warm-up) are not traced, so background work does not start traces of its own.
+class RepositorySpanInterceptor implements MethodInterceptor {
+    
+    private final Supplier<Tracer> tracer;
+    private final String repository;
+    
+    RepositorySpanInterceptor(Supplier<Tracer> tracer, String repository) {
+        this.tracer = tracer;
+        this.repository = repository;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Tracer current = tracer.get();
+        if (current == null || current.currentSpan() == null
+                || invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        
+        String method = invocation.getMethod().getName();
+        Span span = current.nextSpan()
+                .name(repository + "." + method)
+                .tag("db.repository", repository)
+                .tag("db.operation", method)
+                .start();
+        try (Tracer.SpanInScope scope = current.withSpan(span)) {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.digitalbank.transaction.config;
+
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Inbound requests and RestTemplate calls are traced by Spring Boot's observation support (W3C traceparent).
+// This adds a span per repository call, for Spring Data and JdbcTemplate repositories alike, and, when
+// tracing.export.file is set, a local span file.
+@Configuration
+public class TracingConfig {
+    
+    // Static: repository factory beans must be customized before they create their repositories
+    @Bean
+    public static BeanPostProcessor repositoryTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(new RepositorySpanInterceptor(
+                                    tracer::getIfAvailable, repository.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+            
+            // Repositories written against JdbcTemplate are plain @Repository classes with no factory to hook into
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                Class<?> targetClass = AopUtils.getTargetClass(bean);
+                if (bean instanceof org.springframework.data.repository.Repository<?, ?>
+                        || !AnnotatedElementUtils.hasAnnotation(targetClass, Repository.class)) {
+                    return bean;
+                }
+                RepositorySpanInterceptor interceptor = new RepositorySpanInterceptor(tracer::getIfAvailable,
+                        targetClass.getSimpleName());
+                // First in the chain, so the span also covers the commit of a @Transactional repository method
+                if (bean instanceof Advised advised && !advised.isFrozen()) {
+                    advised.addAdvice(0, interceptor);
+                    return bean;
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(bean);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvice(interceptor);
+                return proxyFactory.getProxy(targetClass.getClassLoader());
+            }
+        };
+    }
+    
+    @Bean
+    @ConditionalOnProperty("tracing.export.file")
+    public SpanExporter fileSpanExporter(@Value("${tracing.export.file}") String file) throws IOException {
+        return new FileSpanExporter(Path.of(file));
+    }
+}
@@ -1,17 +1,38 @@
 package com.digitalbank.transaction.controller;
 
+import com.digitalbank.transaction.model.BatchTransferRequest;
+import com.digitalbank.transaction.model.BatchTransferResult;
+import com.digitalbank.transaction.model.TransactionHistoryPage;
 import com.digitalbank.transaction.model.TransactionResponse;
 import com.digitalbank.transaction.model.TransactionSummary;
+import com.digitalbank.transaction.model.TransferEvent;
+import com.digitalbank.transaction.model.TransferEventPage;
 import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.TransferSagaStatus;
 import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.service.TransactionExportService;
 import com.digitalbank.transaction.service.TransactionService;
+import com.digitalbank.transaction.service.TransferIdempotency;
+import com.digitalbank.transaction.service.TransferSaga;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -21,19 +42,88 @@ import java.util.Map;
 public class TransactionController {
     
     private final TransactionService transactionService;
+    private final TransferIdempotency transferIdempotency;
+    private final TransferSaga transferSaga;
+    private final TransactionExportService transactionExportService;
+    private final ObjectMapper objectMapper;
     
+    // With an Idempotency-Key header, a retried submission returns the first one's response instead of transferring again.
+    // A PENDING answer (wallet-service did not respond) is 202: the transfer is settled by reconciliation.
     @PostMapping("/transfer")
-    public ResponseEntity<TransactionResponse> transfer(@Valid @RequestBody TransferRequest request) {
-        TransactionResponse response = transactionService.transfer(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<TransactionResponse> transfer(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        TransactionResponse response = idempotencyKey == null
+                ? transactionService.transfer(request)
+                : transferIdempotency.execute(idempotencyKey, request, () -> transactionService.transfer(request));
+        HttpStatus status = response.getStatus() == TransactionStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
     }
     
+    // Accepted as PENDING and carried out by the transfer saga; poll the Location for the outcome
+    @PostMapping("/transfer/async")
+    public ResponseEntity<TransactionResponse> transferAsync(
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        TransactionResponse response = idempotencyKey == null
+                ? transferSaga.submit(request)
+                : transferIdempotency.execute(idempotencyKey, request, () -> transferSaga.submit(request));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header("Location", "/api/transactions/transfer/async/" + response.getTransactionRef())
+                .body(response);
+    }
+    
+    @GetMapping("/transfer/async/{transactionRef}")
+    public ResponseEntity<TransferSagaStatus> getTransferStatus(@PathVariable String transactionRef) {
+        return ResponseEntity.ok(transferSaga.getStatus(transactionRef));
+    }
+    
+    @GetMapping("/transfer/async/statistics")
+    public ResponseEntity<Map<String, Object>> getTransferSagaStatistics() {
+        return ResponseEntity.ok(transferSaga.getStatistics());
+    }
+    
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<List<BatchTransferResult>> transferBatch(@Valid @RequestBody BatchTransferRequest request) {
+        List<BatchTransferResult> results = new ArrayList<>();
+        transactionService.transferBatch(request.getTransfers(), results::addAll);
+        return ResponseEntity.ok(results);
+    }
+    
+    // Same batch, but each chunk's results are written as NDJSON lines as soon as the chunk completes
+    @PostMapping(value = "/transfer/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transferBatchStream(@Valid @RequestBody BatchTransferRequest request) {
+        StreamingResponseBody body = out -> transactionService.transferBatch(request.getTransfers(),
+                results -> writeNdjson(out, results));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    // Newest first. Without cursor or limit the whole history comes back, as it always has; with either, one page
+    // per call, and the X-Next-Cursor header goes back as ?cursor= to continue
     @GetMapping("/history/{userId}")
     public ResponseEntity<List<TransactionResponse>> getHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) TransactionStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(transactionService.getUserTransactionHistory(userId, status));
+        }
+        TransactionHistoryPage page = transactionService.getUserTransactionHistory(userId, status, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getTransactions());
+    }
+    
+    @GetMapping(value = "/history/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamHistory(
             @PathVariable Long userId,
             @RequestParam(required = false) TransactionStatus status) {
-        List<TransactionResponse> transactions = transactionService.getUserTransactionHistory(userId, status);
-        return ResponseEntity.ok(transactions);
+        StreamingResponseBody body = out -> transactionService.streamUserTransactionHistory(userId, status,
+                transaction -> writeNdjsonLine(out, transaction));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     @GetMapping("/summary/{userId}")
@@ -65,4 +155,72 @@ public class TransactionController {
         List<Map<String, Object>> transactions = transactionService.getLargeTransactions(minAmount, limit);
         return ResponseEntity.ok(transactions);
     }
+    
+    // Completed and failed transfers from the outbox table, in eventId order after ?offset= (an eventId);
+    // pass the X-Next-Offset header back as ?offset= to continue from where the previous call stopped
+    @GetMapping("/events")
+    public ResponseEntity<List<TransferEvent>> getTransferEvents(
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "100") int limit) {
+        TransferEventPage page = transactionService.getTransferEvents(offset, limit);
+        return ResponseEntity.ok()
+                .header("X-Next-Offset", String.valueOf(page.getNextOffset()))
+                .body(page.getEvents());
+    }
+    
+    // Reconciliation export of every transaction created from `from` through `to`, oldest first, as CSV streamed
+    // straight from the database cursor; userId matches either side of a transfer
+    @GetMapping(value = "/export", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) TransactionStatus status) {
+        transactionExportService.validate(from, to);
+        StreamingResponseBody body = out -> transactionExportService.writeCsv(from, to, userId, status, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(transactionExportService.fileName(from, to, userId, status)).build().toString())
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+    
+    // Same export written to a file under transaction.export.dir on the service's host
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> exportToFile(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) TransactionStatus status) {
+        Map<String, Object> result = transactionExportService.exportToFile(from, to, userId, status);
+        return ResponseEntity.ok(result);
+    }
+    
+    // Backfill: recompute the analytics rollups for closed days from the transactions table
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Map<String, Object> result = transactionService.rebuildRollups(from, to);
+        return ResponseEntity.ok(result);
+    }
+    
+    private void writeNdjson(OutputStream out, List<?> rows) {
+        rows.forEach(row -> writeNdjsonLine(out, row));
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // No flush per line: the servlet response buffer flushes itself as it fills
+    private void writeNdjsonLine(OutputStream out, Object row) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
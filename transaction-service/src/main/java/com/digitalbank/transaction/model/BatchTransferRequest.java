@@ -0,0 +1,14 @@
+package com.digitalbank.transaction.model;
+
+import lombok.Data;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+@Data
+public class BatchTransferRequest {
+    
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 10000, message = "At most 10000 transfers per batch")
+    private List<@Valid TransferRequest> transfers;
+}
@@ -0,0 +1,14 @@
+package com.digitalbank.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResult {
+    private int index;
+    private TransactionResponse transaction;
+    private String error;
+}
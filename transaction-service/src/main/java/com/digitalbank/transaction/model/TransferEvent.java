@@ -0,0 +1,22 @@
+package com.digitalbank.transaction.model;
+
+import com.digitalbank.transaction.model.common.TransferEventType;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// eventId is the outbox row id: a relay retry can deliver an event twice, and consumers drop repeats by it
+@Data
+public class TransferEvent {
+    private Long eventId;
+    private TransferEventType type;
+    private Long transactionId;
+    private String transactionRef;
+    private Long senderUserId;
+    private Long receiverUserId;
+    private BigDecimal amount;
+    private String currency;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime occurredAt;
+}
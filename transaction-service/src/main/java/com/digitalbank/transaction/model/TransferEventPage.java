@@ -0,0 +1,14 @@
+package com.digitalbank.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferEventPage {
+    private List<TransferEvent> events;
+    private long nextOffset;
+}
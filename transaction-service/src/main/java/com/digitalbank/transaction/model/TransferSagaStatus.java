@@ -0,0 +1,15 @@
+package com.digitalbank.transaction.model;
+
+import com.digitalbank.transaction.model.common.SagaStep;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class TransferSagaStatus {
+    private TransactionResponse transaction;
+    private SagaStep step;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime updatedAt;
+}
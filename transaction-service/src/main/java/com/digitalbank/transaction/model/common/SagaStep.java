@@ -0,0 +1,11 @@
+package com.digitalbank.transaction.model.common;
+
+public enum SagaStep {
+    VALIDATE,
+    DEBIT,
+    CREDIT,
+    COMPLETE,
+    COMPENSATE,
+    DONE,
+    FAILED
+}
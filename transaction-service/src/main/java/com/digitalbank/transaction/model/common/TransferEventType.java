@@ -0,0 +1,6 @@
+package com.digitalbank.transaction.model.common;
+
+public enum TransferEventType {
+    TRANSFER_COMPLETED, 
+    TRANSFER_FAILED
+}
@@ -0,0 +1,70 @@
+package com.digitalbank.transaction.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Idempotency-Key claims for transfer submissions. The primary key on idempotency_key is what makes a claim
+// exclusive: of several concurrent submissions with the same key, exactly one INSERT succeeds.
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // False when the key is already claimed, whether still in progress or completed
+    public boolean claim(String key, String requestHash, LocalDateTime now, LocalDateTime claimedUntil,
+                         LocalDateTime expiresAt) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at, claimed_until, expires_at) " +
+                    "VALUES (?, ?, ?, ?, ?)",
+                    key, requestHash, now, claimedUntil, expiresAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    // True for the one caller that takes over an unfinished claim whose lease has run out
+    public boolean takeOver(String key, String requestHash, LocalDateTime now, LocalDateTime claimedUntil) {
+        return jdbcTemplate.update(
+                "UPDATE idempotency_keys SET claimed_until = ? " +
+                "WHERE idempotency_key = ? AND request_hash = ? AND response IS NULL " +
+                "AND (claimed_until IS NULL OR claimed_until < ?)",
+                claimedUntil, key, requestHash, now) == 1;
+    }
+    
+    // {requestHash, response, expiresAt, claimedUntil}; response is null while the first submission is still running
+    public Object[] find(String key) {
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT request_hash, response, expires_at, claimed_until FROM idempotency_keys WHERE idempotency_key = ?",
+                (rs, rowNum) -> new Object[] {
+                        rs.getString(1), rs.getString(2), rs.getObject(3, LocalDateTime.class),
+                        rs.getObject(4, LocalDateTime.class) },
+                key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+    
+    // Joins the caller's transaction, so the response is stored only if the transfer commits
+    public void complete(String key, String response) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response = ? WHERE idempotency_key = ?", response, key);
+    }
+    
+    // Frees a claim whose transfer did not commit, so the client can retry with the same key
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND response IS NULL", key);
+    }
+    
+    public void deleteExpired(String key, LocalDateTime now) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ? AND expires_at < ?", key, now);
+    }
+    
+    public int deleteAllExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", now);
+    }
+}
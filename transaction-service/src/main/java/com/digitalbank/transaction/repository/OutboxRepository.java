@@ -0,0 +1,60 @@
+package com.digitalbank.transaction.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Outbox rows for transfer events. Rows are written only inside the transaction that changes a transfer's
+// status, marked relayed once published and kept for the retention period, so consumers can read them by id.
+// Every timestamp is taken from the database's UTC clock (outbox_clock), never from an application instance.
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Rows: {eventType, transactionRef, payload}
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (event_type, transaction_ref, payload, created_at) " +
+                "SELECT ?, ?, ?, utc_now FROM outbox_clock",
+                rows);
+    }
+    
+    // {id, payload}, oldest first, of the rows not relayed yet
+    public List<Object[]> findUnrelayed(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, payload FROM outbox_events WHERE relayed_at IS NULL " +
+                "ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2) },
+                limit);
+    }
+    
+    // {id, payload} after the given id, in id order, of the rows created at least lagMillis ago
+    public List<Object[]> findAfter(long afterId, int lagMillis, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, payload FROM outbox_events WHERE id > ? " +
+                "AND created_at <= (SELECT DATEADD(MILLISECOND, ?, utc_now) FROM outbox_clock) " +
+                "ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2) },
+                afterId, -lagMillis, limit);
+    }
+    
+    // By id rather than up to the highest id: a lower id can commit after a higher one and must not be skipped
+    public void markRelayed(List<Long> ids) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE outbox_events SET relayed_at = (SELECT utc_now FROM outbox_clock) WHERE id = ?",
+                ids.stream().map(id -> new Object[] { id }).toList());
+    }
+    
+    public int deleteRelayedBefore(int retentionSeconds) {
+        return jdbcTemplate.update(
+                "DELETE FROM outbox_events WHERE relayed_at <= (SELECT DATEADD(SECOND, ?, utc_now) FROM outbox_clock)",
+                -retentionSeconds);
+    }
+}
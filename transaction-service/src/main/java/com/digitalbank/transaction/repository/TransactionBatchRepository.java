@@ -0,0 +1,63 @@
+package com.digitalbank.transaction.repository;
+
+import com.digitalbank.transaction.entity.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Plain JDBC batches for bulk writes: IDENTITY ids keep Hibernate from batching these inserts
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (transaction_ref, sender_user_id, receiver_user_id, amount, currency, " +
+                                      "type, status, description, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE transactions SET status = ?, completed_at = ? WHERE transaction_ref = ? AND status = 'PENDING'";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Transactional
+    public void insertAll(List<Transaction> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, transactions.size(), (ps, t) -> {
+            ps.setString(1, t.getTransactionRef());
+            ps.setLong(2, t.getSenderUserId());
+            ps.setLong(3, t.getReceiverUserId());
+            ps.setBigDecimal(4, t.getAmount());
+            ps.setString(5, t.getCurrency());
+            ps.setString(6, t.getType().name());
+            ps.setString(7, t.getStatus().name());
+            ps.setString(8, t.getDescription());
+            ps.setObject(9, t.getCreatedAt());
+        });
+    }
+    
+    // Only moves rows that are still PENDING; returns the transactions it moved, so whoever settles a row
+    // first is the one that records its rollups and event
+    @Transactional
+    public List<Transaction> updateStatuses(List<Transaction> transactions) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, transactions, transactions.size(), (ps, t) -> {
+            ps.setString(1, t.getStatus().name());
+            ps.setObject(2, t.getCompletedAt());
+            ps.setString(3, t.getTransactionRef());
+        });
+        List<Transaction> updated = new ArrayList<>(transactions.size());
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 0) {
+                    updated.add(transactions.get(index));
+                }
+                index++;
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,57 @@
+package com.digitalbank.transaction.repository;
+
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk reads for exports: a forward-only, read-only cursor fetching fetch-size rows per round trip, each row
+// handed to the caller and dropped, so an export of any size holds one fetch in memory
+@Repository
+@RequiredArgsConstructor
+public class TransactionExportRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${transaction.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    // Rows of transactions created in [from, to), oldest first; userId matches either side of the transfer.
+    // Columns: transaction_ref, type, status, sender_user_id, receiver_user_id, amount, currency, description,
+    // created_at, completed_at
+    public void forEach(LocalDateTime from, LocalDateTime to, Long userId, TransactionStatus status,
+                        RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT transaction_ref, type, status, sender_user_id, receiver_user_id, amount, currency, " +
+                "description, created_at, completed_at FROM transactions WHERE created_at >= ? AND created_at < ?");
+        List<Object> params = new ArrayList<>(List.of(from, to));
+        if (userId != null) {
+            sql.append(" AND (sender_user_id = ? OR receiver_user_id = ?)");
+            params.add(userId);
+            params.add(userId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        sql.append(" ORDER BY created_at, id");
+        
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+}
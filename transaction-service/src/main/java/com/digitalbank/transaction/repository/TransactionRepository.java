@@ -2,14 +2,21 @@ package com.digitalbank.transaction.repository;
 
 import com.digitalbank.transaction.entity.Transaction;
 import com.digitalbank.transaction.model.common.TransactionStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -17,50 +24,88 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findBySenderUserId(Long senderUserId);
     List<Transaction> findByReceiverUserId(Long receiverUserId);
     List<Transaction> findByStatus(TransactionStatus status);
+    Optional<Transaction> findByTransactionRef(String transactionRef);
     
-    @Query(value = "SELECT * FROM transactions WHERE sender_user_id = :userId OR receiver_user_id = :userId ORDER BY created_at DESC", nativeQuery = true)
-    List<Transaction> findAllUserTransactions(@Param("userId") Long userId);
+    @Query("SELECT t.transactionRef, t.id FROM Transaction t WHERE t.transactionRef IN :refs")
+    List<Object[]> findIdsByTransactionRefs(@Param("refs") Collection<String> refs);
     
-    @Query(value = "SELECT " +
-                        "SUM(CASE WHEN sender_user_id = :userId THEN amount ELSE 0 END) as total_sent, " +
-                        "SUM(CASE WHEN receiver_user_id = :userId THEN amount ELSE 0 END) as total_received, " +
-                        "COUNT(*) as transaction_count " +
-                   "FROM transactions " +
-                   "WHERE (sender_user_id = :userId OR receiver_user_id = :userId) " +
-                        "AND status = 'COMPLETED' " +
-                        "AND created_at BETWEEN :startDate AND :endDate"
-                   , nativeQuery = true)
-    Object[] getTransactionSummary(@Param("userId") Long userId, 
-                                   @Param("startDate") LocalDateTime startDate,
-                                   @Param("endDate") LocalDateTime endDate);
+    // PENDING transfers older than the cutoff that no saga is driving: their single wallet call got no answer
+    @Query(value = "SELECT t.* FROM transactions t " +
+                   "WHERE t.status = 'PENDING' AND t.created_at < :before " +
+                        "AND NOT EXISTS (SELECT 1 FROM transfer_sagas s WHERE s.transaction_id = t.id) " +
+                   "ORDER BY t.created_at, t.id OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY", nativeQuery = true)
+    List<Transaction> findUnsettledTransfers(@Param("before") LocalDateTime before, @Param("limit") int limit);
     
-    @Query(value = "SELECT TOP(:limit) receiver_user_id, " +
-                        "COUNT(*) as transaction_count, " +
-                        "SUM(amount) as total_amount " +
-                   "FROM transactions " +
-                   "WHERE sender_user_id = :userId AND status = 'COMPLETED' " +
-                        "GROUP BY receiver_user_id " +
-                        "ORDER BY transaction_count DESC"
-                    , nativeQuery = true)
-    List<Object[]> getTopReceivers(@Param("userId") Long userId, @Param("limit") int limit);
+    // History is two index-ordered branches, one per (user, created_at, id) index, merged with UNION ALL.
+    // The receiver branch skips self-transfers, which the sender branch already returns.
+    String SENT_BY_USER = "SELECT t.* FROM transactions t WHERE t.sender_user_id = :userId";
+    String RECEIVED_BY_USER = "SELECT t.* FROM transactions t " +
+                              "WHERE t.receiver_user_id = :userId AND t.sender_user_id <> :userId";
+    String WITH_STATUS = " AND t.status = :status";
+    // Row-value keyset spelled out so the leading created_at bound stays a range seek on the index
+    String BEFORE_CURSOR = " AND t.created_at <= :createdAt AND (t.created_at < :createdAt OR t.id < :id)";
+    String NEWEST_FIRST = " ORDER BY created_at DESC, id DESC";
+    String FIRST_ROWS = " OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY";
     
-    @Query(value = "SELECT CONVERT(DATE, created_at) as transaction_date, " +
-                        "COUNT(*) as transaction_count, " +
-                        "SUM(amount) as total_volume " +
-                   "FROM transactions " +
-                   "WHERE status = 'COMPLETED' " +
-                        "AND created_at >= DATEADD(DAY, -:days, GETDATE()) " +
-                        "GROUP BY CONVERT(DATE, created_at) " +
-                        "ORDER BY transaction_date DESC"
-                    , nativeQuery = true)
-    List<Object[]> getDailyTransactionVolume(@Param("days") int days);
+    // Keyset page: rows strictly older than the (createdAt, id) cursor, newest first
+    default List<Transaction> findUserTransactionsBefore(Long userId, TransactionStatus status,
+                                                         LocalDateTime createdAt, Long id, int limit) {
+        return status == null
+                ? findAllUserTransactionsBefore(userId, createdAt, id, limit)
+                : findUserTransactionsWithStatusBefore(userId, status.name(), createdAt, id, limit);
+    }
     
-    @Query(value = "SELECT TOP(:limit) t.*, " +
-                        "(SELECT full_name FROM users WHERE id = t.sender_user_id) as sender_name, " +
-                        "(SELECT full_name FROM users WHERE id = t.receiver_user_id) as receiver_name " +
-                   "FROM transactions t " +
-                   "WHERE t.amount >= :minAmount AND t.status = 'COMPLETED' " +
-                        "ORDER BY t.amount DESC"
-                    , nativeQuery = true)
-    List<Object[]> findLargeTransactions(@Param("minAmount") BigDecimal minAmount, @Param("limit") int limit);
+    @Query(value = "SELECT * FROM (" +
+                       "SELECT * FROM (" + SENT_BY_USER + BEFORE_CURSOR + NEWEST_FIRST + FIRST_ROWS + ") s " +
+                       "UNION ALL " +
+                       "SELECT * FROM (" + RECEIVED_BY_USER + BEFORE_CURSOR + NEWEST_FIRST + FIRST_ROWS + ") r" +
+                   ") h" + NEWEST_FIRST + FIRST_ROWS, nativeQuery = true)
+    List<Transaction> findAllUserTransactionsBefore(@Param("userId") Long userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    @Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM (" +
+                       "SELECT * FROM (" + SENT_BY_USER + WITH_STATUS + BEFORE_CURSOR + NEWEST_FIRST + FIRST_ROWS + ") s " +
+                       "UNION ALL " +
+                       "SELECT * FROM (" + RECEIVED_BY_USER + WITH_STATUS + BEFORE_CURSOR + NEWEST_FIRST + FIRST_ROWS + ") r" +
+                   ") h" + NEWEST_FIRST + FIRST_ROWS, nativeQuery = true)
+    List<Transaction> findUserTransactionsWithStatusBefore(@Param("userId") Long userId,
+                                                           @Param("status") String status,
+                                                           @Param("createdAt") LocalDateTime createdAt,
+                                                           @Param("id") Long id,
+                                                           @Param("limit") int limit);
+    
+    // Forward-only cursor for streaming; callers must consume it inside a transaction and close it
+    default Stream<Transaction> streamUserTransactions(Long userId, TransactionStatus status) {
+        return status == null
+                ? streamAllUserTransactions(userId)
+                : streamUserTransactionsWithStatus(userId, status.name());
+    }
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT * FROM (" + SENT_BY_USER + " UNION ALL " + RECEIVED_BY_USER + ") h" + NEWEST_FIRST,
+           nativeQuery = true)
+    Stream<Transaction> streamAllUserTransactions(@Param("userId") Long userId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT * FROM (" + SENT_BY_USER + WITH_STATUS + " UNION ALL " +
+                                       RECEIVED_BY_USER + WITH_STATUS + ") h" + NEWEST_FIRST,
+           nativeQuery = true)
+    Stream<Transaction> streamUserTransactionsWithStatus(@Param("userId") Long userId,
+                                                         @Param("status") String status);
+    
+    // Top-N by amount served from the (status, amount) index: reads at most `limit` rows
+    @Query("SELECT t FROM Transaction t " +
+           "WHERE t.status = :status AND t.amount >= :minAmount " +
+           "ORDER BY t.amount DESC")
+    List<Transaction> findLargeTransactions(@Param("status") TransactionStatus status,
+                                            @Param("minAmount") BigDecimal minAmount,
+                                            Limit limit);
 }
\ No newline at end of file
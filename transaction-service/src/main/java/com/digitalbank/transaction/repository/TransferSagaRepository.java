@@ -0,0 +1,84 @@
+package com.digitalbank.transaction.repository;
+
+import com.digitalbank.transaction.model.common.SagaStep;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Persisted step state of asynchronous transfers. Every transition is conditional on the step the caller saw,
+// so a step run twice (by the fast path and the poller, or after a lease ran out) changes the row only once.
+@Repository
+@RequiredArgsConstructor
+public class TransferSagaRepository {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public void insert(Long transactionId, SagaStep step, LocalDateTime nextAttemptAt, LocalDateTime now) {
+        jdbcTemplate.update(
+                "INSERT INTO transfer_sagas (transaction_id, step, attempts, next_attempt_at, updated_at) " +
+                "VALUES (?, ?, 0, ?, ?)",
+                transactionId, step.name(), nextAttemptAt, now);
+    }
+    
+    // {step, attempts, nextAttemptAt, lastError, updatedAt}
+    public Object[] find(Long transactionId) {
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT step, attempts, next_attempt_at, last_error, updated_at FROM transfer_sagas " +
+                "WHERE transaction_id = ?",
+                (rs, rowNum) -> new Object[] {
+                        SagaStep.valueOf(rs.getString(1)), rs.getInt(2), rs.getObject(3, LocalDateTime.class),
+                        rs.getString(4), rs.getObject(5, LocalDateTime.class) },
+                transactionId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+    
+    // {transactionId, step} of sagas whose step is due, oldest first; finished sagas have no next_attempt_at
+    public List<Object[]> findDue(LocalDateTime now, int limit) {
+        return jdbcTemplate.query(
+                "SELECT transaction_id, step FROM transfer_sagas WHERE next_attempt_at <= ? " +
+                "ORDER BY next_attempt_at OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                (rs, rowNum) -> new Object[] { rs.getLong(1), SagaStep.valueOf(rs.getString(2)) },
+                now, limit);
+    }
+    
+    // Leases a due step to the caller until leaseUntil; false when another worker got it first
+    public boolean claim(Long transactionId, SagaStep step, LocalDateTime now, LocalDateTime leaseUntil) {
+        return jdbcTemplate.update(
+                "UPDATE transfer_sagas SET next_attempt_at = ? " +
+                "WHERE transaction_id = ? AND step = ? AND next_attempt_at <= ?",
+                leaseUntil, transactionId, step.name(), now) == 1;
+    }
+    
+    // Makes a step due again without counting an attempt, e.g. when its worker pool had no room for it
+    public void reschedule(Long transactionId, SagaStep step, LocalDateTime nextAttemptAt) {
+        jdbcTemplate.update("UPDATE transfer_sagas SET next_attempt_at = ? WHERE transaction_id = ? AND step = ?",
+                nextAttemptAt, transactionId, step.name());
+    }
+    
+    // Moves to the next step with a fresh attempt count; nextAttemptAt is null for DONE and FAILED
+    public boolean advance(Long transactionId, SagaStep from, SagaStep to, LocalDateTime nextAttemptAt,
+                           String lastError, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE transfer_sagas SET step = ?, attempts = 0, next_attempt_at = ?, last_error = ?, updated_at = ? " +
+                "WHERE transaction_id = ? AND step = ?",
+                to.name(), nextAttemptAt, truncate(lastError), now, transactionId, from.name()) == 1;
+    }
+    
+    // Keeps the step and schedules it again
+    public boolean retry(Long transactionId, SagaStep step, int attempts, LocalDateTime nextAttemptAt,
+                         String lastError, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE transfer_sagas SET attempts = ?, next_attempt_at = ?, last_error = ?, updated_at = ? " +
+                "WHERE transaction_id = ? AND step = ?",
+                attempts, nextAttemptAt, truncate(lastError), now, transactionId, step.name()) == 1;
+    }
+    
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
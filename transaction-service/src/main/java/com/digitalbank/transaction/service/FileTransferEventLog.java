@@ -0,0 +1,43 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.model.TransferEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends relayed events to a local file, one JSON object per line, for local runs that want a durable log to
+// tail or replay. Events are flushed per batch before the relay removes them from the outbox.
+public class FileTransferEventLog implements TransferEventSink {
+    
+    private final ObjectMapper objectMapper;
+    private final Writer writer;
+    
+    public FileTransferEventLog(Path file, ObjectMapper objectMapper) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.objectMapper = objectMapper;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+    
+    @Override
+    public synchronized void publish(List<TransferEvent> events) throws IOException {
+        for (TransferEvent event : events) {
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+    
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
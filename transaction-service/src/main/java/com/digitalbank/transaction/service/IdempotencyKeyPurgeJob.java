@@ -0,0 +1,23 @@
+package com.digitalbank.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyPurgeJob {
+    
+    private final TransferIdempotency transferIdempotency;
+    
+    // Expired keys are already ignored on lookup; this only keeps the table from growing
+    @Scheduled(fixedDelayString = "${transaction.idempotency.purge-interval-ms:3600000}")
+    public void purge() {
+        int purged = transferIdempotency.purgeExpired();
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.model.TransferEvent;
+import com.digitalbank.transaction.model.TransferEventPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Optional local sink: the most recent events this instance relayed, in a fixed-size ring readable by offset, for
+// in-process consumers. Offsets are local to the instance and lost on restart; /events reads the outbox table instead.
+@Component
+@ConditionalOnProperty(name = "transaction.outbox.memory-log.enabled", havingValue = "true")
+public class InMemoryTransferEventLog implements TransferEventSink {
+    
+    private final TransferEvent[] ring;
+    private long nextOffset;
+    
+    public InMemoryTransferEventLog(@Value("${transaction.outbox.memory-log-size:100000}") int capacity) {
+        this.ring = new TransferEvent[capacity];
+    }
+    
+    @Override
+    public synchronized void publish(List<TransferEvent> events) {
+        for (TransferEvent event : events) {
+            ring[(int) (nextOffset++ % ring.length)] = event;
+        }
+    }
+    
+    // Events at offset and after, at most limit of them, with the offset to pass to the next read
+    public synchronized TransferEventPage read(long offset, int limit) {
+        long from = Math.max(offset, oldestOffset());
+        long to = Math.min(nextOffset, from + limit);
+        List<TransferEvent> events = new ArrayList<>();
+        for (long o = from; o < to; o++) {
+            events.add(ring[(int) (o % ring.length)]);
+        }
+        return new TransferEventPage(events, Math.max(to, offset));
+    }
+    
+    private long oldestOffset() {
+        return Math.max(0, nextOffset - ring.length);
+    }
+}
@@ -0,0 +1,23 @@
+package com.digitalbank.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxPurgeJob {
+    
+    private final TransferEventOutbox transferEventOutbox;
+    
+    // Only relayed events past the retention period go; unrelayed ones stay however old they are
+    @Scheduled(fixedDelayString = "${transaction.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        int purged = transferEventOutbox.purgeRelayed();
+        if (purged > 0) {
+            log.info("Purged {} relayed transfer events", purged);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.digitalbank.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Can be switched off on all but one instance, so concurrent relays do not publish the same batch twice
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transaction.outbox.relay.enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OutboxRelayJob {
+    
+    private final TransferEventOutbox transferEventOutbox;
+    
+    // Drains the outbox batch by batch; a sink failure is retried on the next run
+    @Scheduled(fixedDelayString = "${transaction.outbox.relay-interval-ms:500}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = transferEventOutbox.relay();
+            } while (relayed == transferEventOutbox.getBatchSize());
+        } catch (Exception e) {
+            log.warn("Transfer event relay failed, will retry: {}", e.getMessage());
+        }
+    }
+}
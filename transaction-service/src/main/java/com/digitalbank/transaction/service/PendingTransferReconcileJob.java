@@ -0,0 +1,31 @@
+package com.digitalbank.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingTransferReconcileJob {
+    
+    private final TransactionService transactionService;
+    
+    @Value("${transaction.batch.reconcile-batch-size:500}")
+    private int batchSize;
+    
+    // Settles transfers whose wallet call timed out; wallet-service being down just means trying again next run
+    @Scheduled(fixedDelayString = "${transaction.batch.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        try {
+            int settled = transactionService.reconcilePendingTransfers(batchSize);
+            if (settled > 0) {
+                log.info("Settled {} pending transfers", settled);
+            }
+        } catch (Exception e) {
+            log.warn("Pending transfer reconciliation failed, will retry: {}", e.getMessage());
+        }
+    }
+}
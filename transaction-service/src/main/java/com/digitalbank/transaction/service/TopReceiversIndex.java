@@ -0,0 +1,210 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+// In-memory top receivers per sender, fed by committed completions. Each sender keeps at most `counters`
+// receivers: counts are exact until a sender's fan-out exceeds that, after which the Space-Saving algorithm
+// evicts the smallest counter and every receiver with more than total/counters transfers is still guaranteed a slot.
+// Senders are kept in an LRU map and loaded from pair_daily_rollups on first use.
+// Only this instance's completions are recorded live. With several instances, transfers completed elsewhere show
+// up when the sender is next reloaded from the rollups, so a sender's list can lag by up to refresh-ms.
+@Component
+public class TopReceiversIndex {
+    
+    private final TransactionRollupRepository transactionRollupRepository;
+    private final int counters;
+    private final long refreshMillis;
+    private final Map<Long, SenderTopK> senders;
+    // Senders being read from the rollups; completions recorded meanwhile are buffered in the new SenderTopK
+    private final Map<Long, SenderTopK> loading = new HashMap<>();
+    
+    @Value("${transaction.top-receivers.warm-senders:1000}")
+    private int warmSenders;
+    
+    @Value("${transaction.top-receivers.warm-days:30}")
+    private int warmDays;
+    
+    public TopReceiversIndex(TransactionRollupRepository transactionRollupRepository,
+                             @Value("${transaction.top-receivers.counters:64}") int counters,
+                             @Value("${transaction.top-receivers.max-senders:10000}") int maxSenders,
+                             @Value("${transaction.top-receivers.refresh-ms:60000}") long refreshMillis) {
+        this.transactionRollupRepository = transactionRollupRepository;
+        this.counters = counters;
+        this.refreshMillis = refreshMillis;
+        this.senders = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SenderTopK> eldest) {
+                return size() > maxSenders;
+            }
+        };
+    }
+    
+    public int getCounters() {
+        return counters;
+    }
+    
+    // {receiverUserId, transactionCount, totalAmount}; once a sender has overflowed, counts are upper-bound estimates
+    public List<Object[]> getTopReceivers(Long senderUserId, int limit) {
+        SenderTopK topK;
+        synchronized (senders) {
+            topK = senders.get(senderUserId);
+        }
+        if (topK == null || System.currentTimeMillis() - topK.loadedAt > refreshMillis) {
+            topK = load(senderUserId);
+        }
+        return topK.top(limit);
+    }
+    
+    // Applied after commit so a rolled-back completion never reaches the index
+    public void recordAfterCommit(Collection<Transaction> transactions) {
+        List<Transaction> completed = transactions.stream()
+                .filter(t -> t.getStatus() == TransactionStatus.COMPLETED)
+                .toList();
+        if (completed.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                completed.forEach(t -> record(t.getSenderUserId(), t.getReceiverUserId(), t.getAmount()));
+            }
+        });
+    }
+    
+    // Senders that are neither loaded nor loading are skipped: their history is read from the rollups when first requested
+    void record(Long senderUserId, Long receiverUserId, BigDecimal amount) {
+        SenderTopK topK;
+        SenderTopK reloading;
+        synchronized (senders) {
+            topK = senders.get(senderUserId);
+            reloading = loading.get(senderUserId);
+        }
+        if (topK != null) {
+            topK.record(receiverUserId, amount);
+        }
+        if (reloading != null) {
+            reloading.record(receiverUserId, amount);
+        }
+    }
+    
+    // Startup rebuild: preload the senders that were most active recently
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Long senderUserId : transactionRollupRepository.getMostActiveSenders(LocalDate.now().minusDays(warmDays), warmSenders)) {
+            load(senderUserId);
+        }
+    }
+    
+    // The new SenderTopK is registered before the rollups are read, so a completion committed while they are read
+    // is buffered instead of lost. One committed just before the read can be counted twice until the next reload.
+    // A concurrent load of the same sender reads the rollups for its caller only and leaves the install to the first.
+    SenderTopK load(Long senderUserId) {
+        SenderTopK topK = new SenderTopK(counters);
+        boolean installs;
+        synchronized (senders) {
+            installs = loading.putIfAbsent(senderUserId, topK) == null;
+        }
+        try {
+            for (Object[] row : transactionRollupRepository.getTopReceivers(senderUserId, counters)) {
+                topK.offer((Long) row[0], (Long) row[1], (BigDecimal) row[2]);
+            }
+            topK.finishLoading();
+        } finally {
+            if (installs) {
+                synchronized (senders) {
+                    loading.remove(senderUserId);
+                    if (topK.isLoaded()) {
+                        senders.put(senderUserId, topK);
+                    }
+                }
+            }
+        }
+        return topK;
+    }
+    
+    int size() {
+        synchronized (senders) {
+            return senders.size();
+        }
+    }
+    
+    static final class SenderTopK {
+        private final int capacity;
+        private final Map<Long, Counter> counters = new HashMap<>();
+        private final long loadedAt = System.currentTimeMillis();
+        // {receiverUserId, amount} completions recorded while the rollups are read; null once loaded
+        private List<Object[]> buffered = new ArrayList<>();
+        
+        SenderTopK(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        synchronized void record(Long receiverUserId, BigDecimal amount) {
+            if (buffered != null) {
+                buffered.add(new Object[] { receiverUserId, amount });
+            } else {
+                offer(receiverUserId, 1, amount);
+            }
+        }
+        
+        synchronized void finishLoading() {
+            List<Object[]> completions = buffered;
+            buffered = null;
+            completions.forEach(c -> offer((Long) c[0], 1, (BigDecimal) c[1]));
+        }
+        
+        synchronized boolean isLoaded() {
+            return buffered == null;
+        }
+        
+        synchronized void offer(Long receiverUserId, long count, BigDecimal amount) {
+            Counter counter = counters.get(receiverUserId);
+            if (counter == null) {
+                if (counters.size() < capacity) {
+                    counter = new Counter(0);
+                } else {
+                    // Space-Saving: the newcomer takes over the smallest counter and inherits its count,
+                    // so its count can overestimate by at most that inherited value
+                    Map.Entry<Long, Counter> min = Collections.min(counters.entrySet(),
+                            Comparator.comparingLong(e -> e.getValue().count));
+                    counters.remove(min.getKey());
+                    counter = new Counter(min.getValue().count);
+                }
+                counters.put(receiverUserId, counter);
+            }
+            counter.count += count;
+            counter.amount = counter.amount.add(amount);
+        }
+        
+        synchronized List<Object[]> top(int limit) {
+            return counters.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<Long, Counter> e) -> e.getValue().count).reversed()
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(limit)
+                    .map(e -> new Object[] { e.getKey(), e.getValue().count, e.getValue().amount })
+                    .toList();
+        }
+    }
+    
+    private static final class Counter {
+        private long count;
+        // Amount seen since this receiver got its counter; a lower bound once the sender has overflowed
+        private BigDecimal amount = BigDecimal.ZERO;
+        
+        Counter(long count) {
+            this.count = count;
+        }
+    }
+}
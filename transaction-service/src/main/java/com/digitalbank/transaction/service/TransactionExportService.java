@@ -0,0 +1,161 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.TransactionExportRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Reconciliation dumps: every transaction of a date range as CSV, written row by row from the database cursor
+// to the response or a local file, so heap use does not depend on the size of the export
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    
+    static final String CSV_HEADER = "transaction_ref,type,status,sender_user_id,receiver_user_id,amount,currency," +
+                                     "description,created_at,completed_at";
+    
+    private final TransactionExportRepository transactionExportRepository;
+    
+    @Value("${transaction.export.dir:exports}")
+    private String exportDir;
+    
+    // from and to are whole days, both included
+    public void validate(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Export range must not end before it starts");
+        }
+    }
+    
+    public String fileName(LocalDate from, LocalDate to, Long userId, TransactionStatus status) {
+        return "transactions-" + from + "-" + to
+                + (userId != null ? "-user-" + userId : "")
+                + (status != null ? "-" + status.name().toLowerCase() : "")
+                + ".csv";
+    }
+    
+    // Returns the number of rows written; the stream is flushed but left open
+    public long writeCsv(LocalDate from, LocalDate to, Long userId, TransactionStatus status, OutputStream out) {
+        validate(from, to);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] rows = { 0 };
+        try {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            transactionExportRepository.forEach(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), userId, status,
+                    rs -> {
+                        writeRow(writer, rs);
+                        rows[0]++;
+                    });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows[0];
+    }
+    
+    // Writes under transaction.export.dir on this host; the file appears under its final name only once complete
+    public Map<String, Object> exportToFile(LocalDate from, LocalDate to, Long userId, TransactionStatus status) {
+        validate(from, to);
+        long startedAt = System.currentTimeMillis();
+        Path file = Paths.get(exportDir).toAbsolutePath().resolve(fileName(from, to, userId, status));
+        Path partial = null;
+        long rows;
+        try {
+            Files.createDirectories(file.getParent());
+            // Each export writes its own partial file, so concurrent exports of the same range do not interleave
+            partial = Files.createTempFile(file.getParent(), file.getFileName() + "-", ".part");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                rows = writeCsv(from, to, userId, status, out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("file", file.toString());
+            result.put("rows", rows);
+            result.put("bytes", Files.size(file));
+            result.put("elapsedMs", System.currentTimeMillis() - startedAt);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+    
+    private static void deleteQuietly(Path partial) {
+        if (partial == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException ignored) {
+            // A leftover .part file is never mistaken for a finished export
+        }
+    }
+    
+    private static void writeRow(Writer writer, ResultSet rs) throws SQLException {
+        try {
+            writer.write(csv(rs.getString(1)));
+            writer.write(',');
+            writer.write(rs.getString(2));
+            writer.write(',');
+            writer.write(rs.getString(3));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(4)));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(5)));
+            writer.write(',');
+            writer.write(rs.getBigDecimal(6).toPlainString());
+            writer.write(',');
+            writer.write(csv(rs.getString(7)));
+            writer.write(',');
+            writer.write(csv(rs.getString(8)));
+            writer.write(',');
+            writer.write(timestamp(rs.getObject(9, LocalDateTime.class)));
+            writer.write(',');
+            writer.write(timestamp(rs.getObject(10, LocalDateTime.class)));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // RFC 4180 quoting, only where a value needs it. Text starting with = + - @ (or a tab or CR) is prefixed with '
+    // so a spreadsheet opening the export shows it instead of evaluating it as a formula
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    private static String timestamp(LocalDateTime value) {
+        return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : "";
+    }
+}
@@ -0,0 +1,119 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Keeps the analytics rollups in step with completed transactions: deltas are written in the same
+// DB transaction that marks a transaction COMPLETED, so a rollback never leaves them counted
+@Service
+@RequiredArgsConstructor
+public class TransactionRollupService {
+    
+    private static final Comparator<Object[]> USER_KEY_ORDER = Comparator
+            .comparing((Object[] row) -> (Long) row[3])
+            .thenComparing(row -> (LocalDate) row[4]);
+    
+    private static final Comparator<Object[]> PAIR_KEY_ORDER = Comparator
+            .comparing((Object[] row) -> (Long) row[2])
+            .thenComparing(row -> (Long) row[3])
+            .thenComparing(row -> (LocalDate) row[4]);
+    
+    private final TransactionRollupRepository transactionRollupRepository;
+    private final TopReceiversIndex topReceiversIndex;
+    
+    @Value("${transaction.rollup.daily-shards:16}")
+    private int dailyShards;
+    
+    // Transactions that are not COMPLETED are ignored, so callers can pass a whole batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompleted(Collection<Transaction> transactions) {
+        Map<List<Object>, Object[]> userDeltas = new HashMap<>();
+        Map<List<Object>, Object[]> pairDeltas = new HashMap<>();
+        Map<LocalDate, Object[]> dailyDeltas = new HashMap<>();
+        int shardNo = ThreadLocalRandom.current().nextInt(dailyShards);
+        
+        for (Transaction t : transactions) {
+            if (t.getStatus() != TransactionStatus.COMPLETED) {
+                continue;
+            }
+            LocalDate date = t.getCreatedAt().toLocalDate();
+            BigDecimal amount = t.getAmount();
+            
+            add(userDeltas.computeIfAbsent(List.of(t.getSenderUserId(), date),
+                    key -> new Object[] { BigDecimal.ZERO, BigDecimal.ZERO, 0L, t.getSenderUserId(), date }),
+                    amount, BigDecimal.ZERO);
+            add(userDeltas.computeIfAbsent(List.of(t.getReceiverUserId(), date),
+                    key -> new Object[] { BigDecimal.ZERO, BigDecimal.ZERO, 0L, t.getReceiverUserId(), date }),
+                    BigDecimal.ZERO, amount);
+            add(pairDeltas.computeIfAbsent(List.of(t.getSenderUserId(), t.getReceiverUserId(), date),
+                    key -> new Object[] { BigDecimal.ZERO, 0L, t.getSenderUserId(), t.getReceiverUserId(), date }),
+                    amount);
+            add(dailyDeltas.computeIfAbsent(date,
+                    key -> new Object[] { BigDecimal.ZERO, 0L, date, shardNo }),
+                    amount);
+        }
+        if (dailyDeltas.isEmpty()) {
+            return;
+        }
+        
+        // Same lock order in every writer: two transfers between the same users in opposite directions cannot deadlock
+        List<Object[]> userRows = new ArrayList<>(userDeltas.values());
+        userRows.sort(USER_KEY_ORDER);
+        List<Object[]> pairRows = new ArrayList<>(pairDeltas.values());
+        pairRows.sort(PAIR_KEY_ORDER);
+        
+        transactionRollupRepository.addUserDeltas(userRows);
+        transactionRollupRepository.addPairDeltas(pairRows);
+        transactionRollupRepository.addDailyDeltas(new ArrayList<>(dailyDeltas.values()));
+        topReceiversIndex.recordAfterCommit(transactions);
+    }
+    
+    // Backfill: recomputes each day from the transactions table in its own DB transaction.
+    // Today is still receiving incremental deltas, so only closed days can be rebuilt.
+    public Map<String, Object> rebuild(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Rebuild start date must not be after end date");
+        }
+        if (!to.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Only days before today can be rebuilt");
+        }
+        
+        long days = 0;
+        long transactions = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            transactions += transactionRollupRepository.rebuildDay(date);
+            days++;
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("daysRebuilt", days);
+        result.put("transactionsRolledUp", transactions);
+        return result;
+    }
+    
+    // User rows: {sent, received, count, ...}
+    private static void add(Object[] row, BigDecimal sent, BigDecimal received) {
+        row[0] = ((BigDecimal) row[0]).add(sent);
+        row[1] = ((BigDecimal) row[1]).add(received);
+        row[2] = (Long) row[2] + 1;
+    }
+    
+    // Pair and daily rows: {amount, count, ...}
+    private static void add(Object[] row, BigDecimal amount) {
+        row[0] = ((BigDecimal) row[0]).add(amount);
+        row[1] = (Long) row[1] + 1;
+    }
+}
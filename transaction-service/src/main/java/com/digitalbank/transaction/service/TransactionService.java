@@ -1,105 +1,198 @@
 package com.digitalbank.transaction.service;
 
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.model.BatchTransferResult;
+import com.digitalbank.transaction.model.TransactionHistoryPage;
 import com.digitalbank.transaction.model.TransactionResponse;
 import com.digitalbank.transaction.model.TransactionSummary;
+import com.digitalbank.transaction.model.TransferEventPage;
 import com.digitalbank.transaction.model.TransferRequest;
 import com.digitalbank.transaction.entity.Transaction;
 import com.digitalbank.transaction.model.common.TransactionStatus;
 import com.digitalbank.transaction.model.common.TransactionType;
+import com.digitalbank.transaction.repository.TransactionBatchRepository;
 import com.digitalbank.transaction.repository.TransactionRepository;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import com.digitalbank.transaction.service.TransferMetrics.Outcome;
+import com.digitalbank.transaction.service.TransferMetrics.Stage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
     
+    // Upper bound for the first history page; SQL Server datetime2 cannot hold LocalDateTime.MAX
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
     private final TransactionRepository transactionRepository;
-    private final RestTemplate restTemplate;
+    private final UserServiceClient userServiceClient;
+    private final WalletServiceClient walletServiceClient;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final EntityManager entityManager;
+    private final TransactionRollupService transactionRollupService;
+    private final TransactionRollupRepository transactionRollupRepository;
+    private final TopReceiversIndex topReceiversIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferMetrics transferMetrics;
+    private final TransferEventOutbox transferEventOutbox;
+    
+    @Value("${transaction.batch.chunk-size:500}")
+    private int batchChunkSize;
+    
+    @Value("${transaction.batch.reconcile-after-ms:60000}")
+    private long reconcileAfterMillis;
     
-    @Value("${wallet.service.url}")
-    private String walletServiceUrl;
+    @Value("${transaction.history.default-page-size:50}")
+    private int defaultHistoryPageSize;
     
-    @Value("${user.service.url}")
-    private String userServiceUrl;
+    @Value("${transaction.history.max-page-size:500}")
+    private int maxHistoryPageSize;
     
-    @Transactional
+    @Value("${transaction.large-transactions.max-limit:1000}")
+    private int maxLargeTransactionsLimit;
+    
+    // A refused wallet transfer still commits: the FAILED transaction and its event are kept, then the error is thrown.
+    // A wallet call without an answer may have gone through: the transaction commits as PENDING and is returned that
+    // way, and reconcilePendingTransfers settles it later.
+    @Transactional(noRollbackFor = TransferFailedException.class)
     public TransactionResponse transfer(TransferRequest request) {
-        // Validate users exist
-        validateUser(request.getSenderUserId());
-        validateUser(request.getReceiverUserId());
-        
-        // Validate PIN
-        if (!validatePin(request.getSenderUserId(), request.getPin())) {
-            throw new RuntimeException("Invalid PIN");
-        }
-        
-        // Check sender balance
-        BigDecimal senderBalance = getWalletBalance(request.getSenderUserId());
-        if (senderBalance.compareTo(request.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
-        }
-        
-        // Create transaction
-        Transaction transaction = new Transaction();
-        transaction.setTransactionRef(generateTransactionRef());
-        transaction.setSenderUserId(request.getSenderUserId());
-        transaction.setReceiverUserId(request.getReceiverUserId());
-        transaction.setAmount(request.getAmount());
-        transaction.setCurrency("USD");
-        transaction.setType(TransactionType.TRANSFER);
-        transaction.setStatus(TransactionStatus.PENDING);
-        transaction.setDescription(request.getDescription());
-        
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        
+        Timer.Sample timing = transferMetrics.startTransfer();
+        Outcome outcome = Outcome.ERROR;
         try {
-            // Deduct from sender
-            deductBalance(request.getSenderUserId(), request.getAmount());
+            // Validate users and PIN concurrently; users usually come straight from the status cache
+            CompletableFuture<Map<Long, String>> userCheck = transferMetrics.stage(Stage.VALIDATE_USERS,
+                    userServiceClient.findInvalidUsersAsync(List.of(request.getSenderUserId(), request.getReceiverUserId())));
+            CompletableFuture<Boolean> pinCheck = transferMetrics.stage(Stage.VALIDATE_PIN,
+                    userServiceClient.validatePinAsync(request.getSenderUserId(), request.getPin()));
             
-            // Add to receiver
-            addBalance(request.getReceiverUserId(), request.getAmount());
+            String userError = userError(await(userCheck), request);
+            if (userError != null) {
+                outcome = Outcome.INVALID_USER;
+                throw new RuntimeException(userError);
+            }
+            if (!await(pinCheck)) {
+                outcome = Outcome.INVALID_PIN;
+                throw new RuntimeException("Invalid PIN");
+            }
+            
+            // Create transaction
+            Transaction savedTransaction = transferMetrics.stage(Stage.SAVE_PENDING)
+                    .record(() -> transactionRepository.save(newTransfer(request)));
+            
+            try {
+                // Debit sender and credit receiver atomically, balance check included; the transactionRef makes
+                // a resend by the reconciliation a no-op if this call went through
+                transferMetrics.stage(Stage.WALLET_TRANSFER).record(() -> walletServiceClient.transferBalance(
+                        request.getSenderUserId(), request.getReceiverUserId(), request.getAmount(),
+                        savedTransaction.getTransactionRef()));
+            } catch (Exception e) {
+                if (!WalletServiceClient.isRefusal(e)) {
+                    outcome = Outcome.PENDING;
+                    return mapToResponseDto(savedTransaction);
+                }
+                outcome = Outcome.FAILED;
+                savedTransaction.setStatus(TransactionStatus.FAILED);
+                transactionRepository.save(savedTransaction);
+                transferEventOutbox.record(List.of(savedTransaction));
+                throw new TransferFailedException("Transfer failed: Could not transfer balance");
+            }
             
             // Update transaction status
             savedTransaction.setStatus(TransactionStatus.COMPLETED);
             savedTransaction.setCompletedAt(LocalDateTime.now());
-            transactionRepository.save(savedTransaction);
+            transferMetrics.stage(Stage.SAVE_RESULT).record(() -> transactionRepository.save(savedTransaction));
+            transferMetrics.stage(Stage.RECORD_ROLLUPS)
+                    .record(() -> transactionRollupService.recordCompleted(List.of(savedTransaction)));
+            transferMetrics.stage(Stage.RECORD_EVENT)
+                    .record(() -> transferEventOutbox.record(List.of(savedTransaction)));
             
-        } catch (Exception e) {
-            savedTransaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(savedTransaction);
-            throw new RuntimeException("Transfer failed: " + e.getMessage());
+            outcome = Outcome.COMPLETED;
+            return mapToResponseDto(savedTransaction);
+        } finally {
+            transferMetrics.endTransfer(timing, outcome);
+        }
+    }
+    
+    // Batch transfers: per chunk, bulk validation, JDBC batch writes and a single wallet-service round trip.
+    // Each chunk's results are handed to resultSink as soon as the chunk completes.
+    public void transferBatch(List<TransferRequest> requests, Consumer<List<BatchTransferResult>> resultSink) {
+        for (int from = 0; from < requests.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, requests.size());
+            resultSink.accept(transferChunk(requests.subList(from, to), from));
+        }
+    }
+    
+    // The whole history in one list, for callers that ask for neither a cursor nor a limit
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> getUserTransactionHistory(Long userId, TransactionStatus status) {
+        try (Stream<Transaction> transactions = transactionRepository.streamUserTransactions(userId, status)) {
+            return transactions.map(this::mapToResponseDto).collect(Collectors.toList());
         }
-        
-        return mapToResponseDto(savedTransaction);
     }
     
-    // Java Stream: Get filtered transaction history
-    public List<TransactionResponse> getUserTransactionHistory(Long userId, 
-                                                                   TransactionStatus status) {
-        List<Transaction> transactions = transactionRepository.findAllUserTransactions(userId);
+    // Keyset pagination on (createdAt, id) with the status filter in SQL: each page costs the same however deep it is
+    public TransactionHistoryPage getUserTransactionHistory(Long userId, TransactionStatus status,
+                                                            String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultHistoryPageSize : Math.max(1, Math.min(limit, maxHistoryPageSize));
+        LocalDateTime beforeCreatedAt = HISTORY_START;
+        Long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            beforeCreatedAt = LocalDateTime.parse(parts[0]);
+            beforeId = Long.valueOf(parts[1]);
+        }
         
-        return transactions.stream()
-                .filter(t -> status == null || t.getStatus() == status)
-                .sorted((t1, t2) -> t2.getCreatedAt().compareTo(t1.getCreatedAt()))
+        // One extra row tells whether another page exists without a COUNT query
+        List<Transaction> rows = transactionRepository.findUserTransactionsBefore(
+                userId, status, beforeCreatedAt, beforeId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Transaction> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        List<TransactionResponse> transactions = page.stream()
                 .map(this::mapToResponseDto)
                 .collect(Collectors.toList());
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new TransactionHistoryPage(transactions, nextCursor);
+    }
+    
+    // Streams the full history off a forward-only JDBC cursor; entities are detached as they are written
+    @Transactional(readOnly = true)
+    public void streamUserTransactionHistory(Long userId, TransactionStatus status, Consumer<TransactionResponse> sink) {
+        try (Stream<Transaction> transactions = transactionRepository.streamUserTransactions(userId, status)) {
+            transactions.forEach(transaction -> {
+                sink.accept(mapToResponseDto(transaction));
+                entityManager.detach(transaction);
+            });
+        }
     }
     
-    // Java Stream: Calculate transaction statistics
+    // Served from per-user daily rollups; the window covers whole days, today included
     public TransactionSummary getTransactionSummary(Long userId, int days) {
-        LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-        LocalDateTime endDate = LocalDateTime.now();
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(days);
         
-        Object[] result = transactionRepository.getTransactionSummary(userId, startDate, endDate);
+        Object[] result = transactionRollupRepository.getUserSummary(userId, startDate, endDate);
         
         BigDecimal totalSent = result[0] != null ? (BigDecimal) result[0] : BigDecimal.ZERO;
         BigDecimal totalReceived = result[1] != null ? (BigDecimal) result[1] : BigDecimal.ZERO;
@@ -114,9 +207,11 @@ public class TransactionService {
         return summary;
     }
     
-    // Java Stream: Get top receivers with Stream operations
+    // Served from the in-memory top-K index; limits beyond its per-sender capacity go to the pair rollups
     public List<Map<String, Object>> getTopReceivers(Long userId, int limit) {
-        List<Object[]> results = transactionRepository.getTopReceivers(userId, limit);
+        List<Object[]> results = limit <= topReceiversIndex.getCounters()
+                ? topReceiversIndex.getTopReceivers(userId, limit)
+                : transactionRollupRepository.getTopReceivers(userId, limit);
         
         return results.stream()
                 .map(row -> {
@@ -129,9 +224,9 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
     
-    // Native SQL usage: Daily transaction volume
+    // One row per day from the global daily rollups (summed over their shards)
     public List<Map<String, Object>> getDailyVolume(int days) {
-        List<Object[]> results = transactionRepository.getDailyTransactionVolume(days);
+        List<Object[]> results = transactionRollupRepository.getDailyVolume(LocalDate.now().minusDays(days));
         
         return results.stream()
                 .map(row -> {
@@ -144,14 +239,26 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
     
-    // Java Stream: Filter and analyze large transactions
+    // Relayed transfer events by offset, paged like history; consumers follow the stream without querying transactions
+    public TransferEventPage getTransferEvents(long offset, int limit) {
+        try {
+            return transferEventOutbox.read(Math.max(0, offset), Math.max(1, Math.min(limit, maxHistoryPageSize)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read transfer events: " + e.getMessage());
+        }
+    }
+    
+    public Map<String, Object> rebuildRollups(LocalDate from, LocalDate to) {
+        return transactionRollupService.rebuild(from, to);
+    }
+    
+    // Filter, ordering and limit are pushed into SQL, so cost is O(limit) rather than O(table)
     public List<Map<String, Object>> getLargeTransactions(BigDecimal minAmount, int limit) {
-        List<Transaction> allTransactions = transactionRepository.findByStatus(TransactionStatus.COMPLETED);
+        int topN = Math.max(1, Math.min(limit, maxLargeTransactionsLimit));
+        List<Transaction> transactions = transactionRepository.findLargeTransactions(
+                TransactionStatus.COMPLETED, minAmount, Limit.of(topN));
         
-        return allTransactions.stream()
-                .filter(t -> t.getAmount().compareTo(minAmount) >= 0)
-                .sorted((t1, t2) -> t2.getAmount().compareTo(t1.getAmount()))
-                .limit(limit)
+        return transactions.stream()
                 .map(t -> {
                     Map<String, Object> map = new LinkedHashMap<>();
                     map.put("transactionRef", t.getTransactionRef());
@@ -164,63 +271,176 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
     
-    private void validateUser(Long userId) {
+    private List<BatchTransferResult> transferChunk(List<TransferRequest> chunk, int offset) {
+        // All users are checked in one cached batch lookup, every distinct (sender, PIN) pair once, all concurrently
+        Set<Long> userIds = new HashSet<>();
+        Map<List<Object>, CompletableFuture<Boolean>> pinChecks = new HashMap<>();
+        for (TransferRequest request : chunk) {
+            userIds.add(request.getSenderUserId());
+            userIds.add(request.getReceiverUserId());
+            pinChecks.computeIfAbsent(List.of(request.getSenderUserId(), request.getPin()),
+                    key -> userServiceClient.validatePinAsync(request.getSenderUserId(), request.getPin()));
+        }
+        
+        CompletableFuture<Map<Long, String>> userCheck = userServiceClient.findInvalidUsersAsync(userIds);
+        
+        BatchTransferResult[] results = new BatchTransferResult[chunk.size()];
+        List<Transaction> pending = new ArrayList<>();
+        List<Integer> pendingPositions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequest request = chunk.get(i);
+            String error = validationError(request, userCheck, pinChecks);
+            if (error != null) {
+                results[i] = new BatchTransferResult(offset + i, null, error);
+                continue;
+            }
+            Transaction transaction = newTransfer(request);
+            transaction.setCreatedAt(LocalDateTime.now());
+            pending.add(transaction);
+            pendingPositions.add(i);
+        }
+        if (pending.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        
+        transactionBatchRepository.insertAll(pending);
+        Map<String, Long> ids = transactionRepository.findIdsByTransactionRefs(
+                    pending.stream().map(Transaction::getTransactionRef).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> ((Number) row[1]).longValue()));
+        pending.forEach(transaction -> transaction.setId(ids.get(transaction.getTransactionRef())));
+        
+        List<String> walletErrors;
         try {
-            restTemplate.getForObject(userServiceUrl + "/api/users/" + userId, Object.class);
+            walletErrors = walletServiceClient.transferBatch(walletTransfers(pending));
         } catch (Exception e) {
-            throw new RuntimeException("User not found: " + userId);
+            if (!WalletServiceClient.isRefusal(e)) {
+                // No answer, so wallet-service may have applied the chunk: the rows stay PENDING until
+                // reconcilePendingTransfers sends them again under the same operationIds
+                for (int k = 0; k < pending.size(); k++) {
+                    int position = pendingPositions.get(k);
+                    results[position] = new BatchTransferResult(offset + position,
+                            mapToResponseDto(pending.get(k)), "Transfer pending: wallet-service did not respond");
+                }
+                return Arrays.asList(results);
+            }
+            walletErrors = Collections.nCopies(pending.size(), "Could not transfer balance");
         }
+        
+        settle(pending, walletErrors);
+        for (int k = 0; k < pending.size(); k++) {
+            Transaction transaction = pending.get(k);
+            int position = pendingPositions.get(k);
+            String error = walletErrors.get(k) == null ? null : "Transfer failed: " + walletErrors.get(k);
+            results[position] = new BatchTransferResult(offset + position, mapToResponseDto(transaction), error);
+        }
+        return Arrays.asList(results);
     }
     
-    private boolean validatePin(Long userId, String pin) {
-        try {
-            Map<String, Object> request = Map.of("userId", userId, "pin", pin);
-            Map response = restTemplate.postForObject(
-                userServiceUrl + "/api/users/validate-pin", 
-                request, 
-                Map.class
-            );
-            return (Boolean) response.get("valid");
-        } catch (Exception e) {
-            return false;
+    // Transfers left PENDING after a wallet call without an answer are sent again as they were. A transactionRef that
+    // wallet-service already applied reports success without moving money twice, so the answer settles each row.
+    public int reconcilePendingTransfers(int limit) {
+        List<Transaction> pending = transactionRepository.findUnsettledTransfers(
+                LocalDateTime.now().minus(Duration.ofMillis(reconcileAfterMillis)), limit);
+        if (pending.isEmpty()) {
+            return 0;
         }
+        return settle(pending, walletServiceClient.transferBatch(walletTransfers(pending))).size();
+    }
+    
+    private static List<Map<String, Object>> walletTransfers(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(t -> Map.<String, Object>of(
+                    "senderUserId", t.getSenderUserId(),
+                    "receiverUserId", t.getReceiverUserId(),
+                    "amount", t.getAmount(),
+                    "operationId", t.getTransactionRef()))
+                .collect(Collectors.toList());
     }
     
-    private BigDecimal getWalletBalance(Long userId) {
+    // Status changes, their rollup deltas and their events commit together, for the rows still PENDING
+    private List<Transaction> settle(List<Transaction> transactions, List<String> walletErrors) {
+        LocalDateTime completedAt = LocalDateTime.now();
+        for (int k = 0; k < transactions.size(); k++) {
+            Transaction transaction = transactions.get(k);
+            if (walletErrors.get(k) == null) {
+                transaction.setStatus(TransactionStatus.COMPLETED);
+                transaction.setCompletedAt(completedAt);
+            } else {
+                transaction.setStatus(TransactionStatus.FAILED);
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            List<Transaction> settled = transactionBatchRepository.updateStatuses(transactions);
+            transactionRollupService.recordCompleted(settled);
+            transferEventOutbox.record(settled);
+            return settled;
+        });
+    }
+    
+    private String validationError(TransferRequest request,
+                                   CompletableFuture<Map<Long, String>> userCheck,
+                                   Map<List<Object>, CompletableFuture<Boolean>> pinChecks) {
         try {
-            Map response = restTemplate.getForObject(
-                walletServiceUrl + "/api/wallets/balance/" + userId, 
-                Map.class
-            );
-            return new BigDecimal(response.get("balance").toString());
-        } catch (Exception e) {
-            throw new RuntimeException("Could not get wallet balance");
+            String userError = userError(await(userCheck), request);
+            if (userError != null) {
+                return userError;
+            }
+            if (!await(pinChecks.get(List.of(request.getSenderUserId(), request.getPin())))) {
+                return "Invalid PIN";
+            }
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
         }
     }
     
-    private void deductBalance(Long userId, BigDecimal amount) {
+    private static String userError(Map<Long, String> invalidUsers, TransferRequest request) {
+        String error = invalidUsers.get(request.getSenderUserId());
+        return error != null ? error : invalidUsers.get(request.getReceiverUserId());
+    }
+    
+    private static String encodeCursor(Transaction last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
         try {
-            Map<String, Object> request = Map.of("userId", userId, "amount", amount);
-            restTemplate.postForObject(
-                walletServiceUrl + "/api/wallets/deduct", 
-                request, 
-                Void.class
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Could not deduct balance");
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
         }
     }
     
-    private void addBalance(Long userId, BigDecimal amount) {
+    // Package-private so the transfer saga persists its PENDING transactions the same way
+    Transaction newTransfer(TransferRequest request) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionRef(generateTransactionRef());
+        transaction.setSenderUserId(request.getSenderUserId());
+        transaction.setReceiverUserId(request.getReceiverUserId());
+        transaction.setAmount(request.getAmount());
+        transaction.setCurrency("USD");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setDescription(request.getDescription());
+        return transaction;
+    }
+    
+    // Surfaces the original RuntimeException instead of the CompletionException wrapper
+    private static <T> T await(CompletableFuture<T> future) {
         try {
-            Map<String, Object> request = Map.of("userId", userId, "amount", amount);
-            restTemplate.postForObject(
-                walletServiceUrl + "/api/wallets/add", 
-                request, 
-                Void.class
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Could not add balance");
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
     
@@ -228,7 +448,8 @@ public class TransactionService {
         return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
-    private TransactionResponse mapToResponseDto(Transaction transaction) {
+    // Package-private so benchmarks/ can measure it on its own
+    TransactionResponse mapToResponseDto(Transaction transaction) {
         TransactionResponse dto = new TransactionResponse();
         dto.setId(transaction.getId());
         dto.setTransactionRef(transaction.getTransactionRef());
@@ -0,0 +1,129 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.TransferEvent;
+import com.digitalbank.transaction.model.TransferEventPage;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.model.common.TransferEventType;
+import com.digitalbank.transaction.repository.OutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Transfer events through a transactional outbox: an event is inserted in the DB transaction that sets the
+// transfer's final status, so it exists exactly when that status does. The relay then hands outbox rows to the
+// sinks and marks them relayed, giving at-least-once delivery. Rows stay readable by id until the retention ends.
+@Service
+@RequiredArgsConstructor
+public class TransferEventOutbox {
+    
+    private final OutboxRepository outboxRepository;
+    private final List<TransferEventSink> sinks;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${transaction.outbox.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${transaction.outbox.retention-ms:604800000}")
+    private long retentionMillis;
+    
+    @Value("${transaction.outbox.read-lag-ms:2000}")
+    private long readLagMillis;
+    
+    // COMPLETED and FAILED transactions get an event; others are ignored, so callers can pass a whole batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Transaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (Transaction t : transactions) {
+            TransferEventType type = t.getStatus() == TransactionStatus.COMPLETED ? TransferEventType.TRANSFER_COMPLETED
+                    : t.getStatus() == TransactionStatus.FAILED ? TransferEventType.TRANSFER_FAILED
+                    : null;
+            if (type == null) {
+                continue;
+            }
+            rows.add(new Object[] { type.name(), t.getTransactionRef(), toJson(newEvent(type, t, now)) });
+        }
+        if (!rows.isEmpty()) {
+            outboxRepository.append(rows);
+        }
+    }
+    
+    // Publishes the oldest unrelayed batch to every sink, then marks it relayed; returns the number of events relayed.
+    // A failing sink leaves the batch unmarked, so sinks that already took it see it again on the next run.
+    public int relay() throws Exception {
+        List<Object[]> rows = outboxRepository.findUnrelayed(batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<TransferEvent> events = toEvents(rows);
+        for (TransferEventSink sink : sinks) {
+            sink.publish(events);
+        }
+        outboxRepository.markRelayed(events.stream().map(TransferEvent::getEventId).toList());
+        return events.size();
+    }
+    
+    // Events with an eventId above afterId, in eventId order, with the id to pass as afterId next time.
+    // Events younger than the read lag are held back: a lower id can still be committing, and reading past it
+    // would skip it for good. Age is measured on the database clock, so instances with skewed clocks agree on it.
+    public TransferEventPage read(long afterId, int limit) throws JsonProcessingException {
+        List<TransferEvent> events = toEvents(outboxRepository.findAfter(afterId, Math.toIntExact(readLagMillis),
+                limit));
+        long nextAfterId = events.isEmpty() ? afterId : events.get(events.size() - 1).getEventId();
+        return new TransferEventPage(events, nextAfterId);
+    }
+    
+    public int purgeRelayed() {
+        return outboxRepository.deleteRelayedBefore(
+                Math.toIntExact(Duration.ofMillis(retentionMillis).toSeconds()));
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    private List<TransferEvent> toEvents(List<Object[]> rows) throws JsonProcessingException {
+        List<TransferEvent> events = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransferEvent event = objectMapper.readValue((String) row[1], TransferEvent.class);
+            event.setEventId((Long) row[0]);
+            events.add(event);
+        }
+        return events;
+    }
+    
+    private static TransferEvent newEvent(TransferEventType type, Transaction t, LocalDateTime occurredAt) {
+        TransferEvent event = new TransferEvent();
+        event.setType(type);
+        event.setTransactionId(t.getId());
+        event.setTransactionRef(t.getTransactionRef());
+        event.setSenderUserId(t.getSenderUserId());
+        event.setReceiverUserId(t.getReceiverUserId());
+        event.setAmount(t.getAmount());
+        event.setCurrency(t.getCurrency());
+        event.setCreatedAt(t.getCreatedAt());
+        event.setCompletedAt(t.getCompletedAt());
+        event.setOccurredAt(occurredAt);
+        return event;
+    }
+    
+    private String toJson(TransferEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize transfer event: " + e.getMessage());
+        }
+    }
+}
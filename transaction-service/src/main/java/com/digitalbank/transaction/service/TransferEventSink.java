@@ -0,0 +1,12 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.model.TransferEvent;
+
+import java.util.List;
+
+// Destination for relayed transfer events. Every TransferEventSink bean receives every batch, in outbox order;
+// a broker adapter is just another implementation. Throwing leaves the batch in the outbox for the next run.
+public interface TransferEventSink {
+    
+    void publish(List<TransferEvent> events) throws Exception;
+}
@@ -0,0 +1,11 @@
+package com.digitalbank.transaction.service;
+
+// A transfer that reached wallet-service and was refused there (see WalletServiceClient.isRefusal). Unlike
+// validation errors it is recorded: transfer() commits the FAILED transaction and its event, then rethrows this.
+// A wallet call that got no answer is not a refusal and never ends up here.
+public class TransferFailedException extends RuntimeException {
+    
+    public TransferFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,166 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Runs a transfer at most once per Idempotency-Key: a retried submission gets the stored response of the first
+// one instead of a second debit. Recent responses are served from memory; the database row is the source of truth.
+@Component
+public class TransferIdempotency {
+    
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    // Keyed by Idempotency-Key and request hash, so a key reused for a different transfer always reaches the check
+    private final Cache<String, TransactionResponse> responses;
+    
+    public TransferIdempotency(IdempotencyKeyRepository idempotencyKeyRepository,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${transaction.idempotency.ttl-ms:86400000}") long ttlMillis,
+                               @Value("${transaction.idempotency.lease-ms:30000}") long leaseMillis,
+                               @Value("${transaction.idempotency.cache-size:100000}") long cacheSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofMillis(ttlMillis);
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+    
+    // The key is claimed before the transfer starts; the response is stored in the transfer's database transaction.
+    // If the transfer fails the claim is released, so a retry with the same key runs it again. A claim is leased:
+    // if its submission died without finishing or releasing it, a retry takes it over once lease-ms has passed.
+    public TransactionResponse execute(String key, TransferRequest request, Supplier<TransactionResponse> transfer) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        String cacheKey = key + "|" + requestHash;
+        TransactionResponse cached = responses.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        
+        TransactionResponse stored = claimOrReplay(key, requestHash);
+        if (stored != null) {
+            responses.put(cacheKey, stored);
+            return stored;
+        }
+        
+        TransactionResponse response;
+        AtomicReference<TransferFailedException> refused = new AtomicReference<>();
+        try {
+            response = transactionTemplate.execute(status -> {
+                try {
+                    TransactionResponse result = transfer.get();
+                    idempotencyKeyRepository.complete(key, toJson(result));
+                    return result;
+                } catch (TransferFailedException e) {
+                    // Not rolled back: the FAILED transaction and its event commit, as they do without a key
+                    refused.set(e);
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(key);
+            throw e;
+        }
+        if (refused.get() != null) {
+            idempotencyKeyRepository.release(key);
+            throw refused.get();
+        }
+        responses.put(cacheKey, response);
+        return response;
+    }
+    
+    public int purgeExpired() {
+        return idempotencyKeyRepository.deleteAllExpired(LocalDateTime.now());
+    }
+    
+    // Null once this submission owns the key; otherwise the first submission's response
+    private TransactionResponse claimOrReplay(String key, String requestHash) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            if (idempotencyKeyRepository.claim(key, requestHash, now, now.plus(lease), now.plus(ttl))) {
+                return null;
+            }
+            
+            Object[] existing = idempotencyKeyRepository.find(key);
+            if (existing == null) {
+                continue; // released by a failed first attempt in the meantime
+            }
+            if (((LocalDateTime) existing[2]).isBefore(now)) {
+                idempotencyKeyRepository.deleteExpired(key, now);
+                continue;
+            }
+            if (!requestHash.equals(existing[0])) {
+                throw new RuntimeException("Idempotency-Key was already used for a different transfer");
+            }
+            if (existing[1] == null) {
+                LocalDateTime claimedUntil = (LocalDateTime) existing[3];
+                if ((claimedUntil == null || claimedUntil.isBefore(now))
+                        && idempotencyKeyRepository.takeOver(key, requestHash, now, now.plus(lease))) {
+                    return null;
+                }
+                throw new RuntimeException("A transfer with this Idempotency-Key is still in progress");
+            }
+            return fromJson((String) existing[1]);
+        }
+        throw new RuntimeException("A transfer with this Idempotency-Key is still in progress");
+    }
+    
+    // The PIN is left out: with so few possible PINs, a stored hash would give it away. Not private for tests.
+    static String hash(TransferRequest request) {
+        String canonical = request.getSenderUserId() + "|" + request.getReceiverUserId() + "|"
+                + request.getAmount().stripTrailingZeros().toPlainString() + "|"
+                + (request.getDescription() != null ? request.getDescription() : "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private String toJson(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to store transfer response: " + e.getMessage());
+        }
+    }
+    
+    private TransactionResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, TransactionResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stored transfer response: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.digitalbank.transaction.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Timers for single transfers: "transfer" per outcome (its count doubles as the outcome counter) and
+// "transfer.stage" per step, so a slow transfer shows whether the time went to user-service, wallet-service
+// or the database. Meters are registered up front; recording is a map lookup.
+@Component
+public class TransferMetrics {
+    
+    public enum Stage {
+        VALIDATE_USERS, VALIDATE_PIN, SAVE_PENDING, WALLET_TRANSFER, SAVE_RESULT, RECORD_ROLLUPS, RECORD_EVENT
+    }
+    
+    public enum Outcome {
+        COMPLETED, PENDING, INVALID_USER, INVALID_PIN, FAILED, ERROR
+    }
+    
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Timer> transfers = new EnumMap<>(Outcome.class);
+    
+    public TransferMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("transfer.stage")
+                    .description("Time spent in one step of a single transfer")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(registry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            transfers.put(outcome, Timer.builder("transfer")
+                    .description("Single transfers by outcome")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+    
+    public Timer stage(Stage stage) {
+        return stages.get(stage);
+    }
+    
+    // Times a stage that runs concurrently with the caller, from now until the future completes
+    public <T> CompletableFuture<T> stage(Stage stage, CompletableFuture<T> future) {
+        Timer.Sample sample = Timer.start(registry);
+        future.whenComplete((result, failure) -> sample.stop(stages.get(stage)));
+        return future;
+    }
+    
+    public Timer.Sample startTransfer() {
+        return Timer.start(registry);
+    }
+    
+    public void endTransfer(Timer.Sample sample, Outcome outcome) {
+        sample.stop(transfers.get(outcome));
+    }
+}
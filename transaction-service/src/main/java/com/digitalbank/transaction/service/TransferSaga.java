@@ -0,0 +1,353 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.TransferSagaStatus;
+import com.digitalbank.transaction.model.common.SagaStep;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.TransactionRepository;
+import com.digitalbank.transaction.repository.TransferSagaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Asynchronous transfers as a saga. submit() only persists the PENDING transaction and its saga row; the steps
+// VALIDATE -> DEBIT -> CREDIT -> COMPLETE then run on one bounded worker pool per step, and each outcome is
+// persisted before the next step is queued. Wallet calls carry operation ids, so a retried or duplicated step
+// is applied once, and a debit that cannot be followed by a credit is reversed in COMPENSATE.
+@Slf4j
+@Service
+public class TransferSaga {
+    
+    private static final Map<SagaStep, SagaStep> NEXT_STEP = Map.of(
+            SagaStep.VALIDATE, SagaStep.DEBIT,
+            SagaStep.DEBIT, SagaStep.CREDIT,
+            SagaStep.CREDIT, SagaStep.COMPLETE);
+    
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final TransferSagaRepository transferSagaRepository;
+    private final UserServiceClient userServiceClient;
+    private final WalletServiceClient walletServiceClient;
+    private final TransactionRollupService transactionRollupService;
+    private final TransferEventOutbox transferEventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<SagaStep, ThreadPoolTaskExecutor> workers = new EnumMap<>(SagaStep.class);
+    // PINs are never persisted: they wait here until VALIDATE has checked them
+    private final Map<Long, String> pendingPins = new ConcurrentHashMap<>();
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    
+    public TransferSaga(TransactionService transactionService,
+                        TransactionRepository transactionRepository,
+                        TransferSagaRepository transferSagaRepository,
+                        UserServiceClient userServiceClient,
+                        WalletServiceClient walletServiceClient,
+                        TransactionRollupService transactionRollupService,
+                        TransferEventOutbox transferEventOutbox,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${transaction.saga.workers.validate:8}") int validateWorkers,
+                        @Value("${transaction.saga.workers.debit:8}") int debitWorkers,
+                        @Value("${transaction.saga.workers.credit:8}") int creditWorkers,
+                        @Value("${transaction.saga.workers.complete:4}") int completeWorkers,
+                        @Value("${transaction.saga.workers.compensate:2}") int compensateWorkers,
+                        @Value("${transaction.saga.queue-capacity:1000}") int queueCapacity,
+                        @Value("${transaction.saga.max-attempts:5}") int maxAttempts,
+                        @Value("${transaction.saga.backoff-ms:200}") long backoffMillis,
+                        @Value("${transaction.saga.max-backoff-ms:30000}") long maxBackoffMillis,
+                        @Value("${transaction.saga.lease-ms:30000}") long leaseMillis) {
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.transferSagaRepository = transferSagaRepository;
+        this.userServiceClient = userServiceClient;
+        this.walletServiceClient = walletServiceClient;
+        this.transactionRollupService = transactionRollupService;
+        this.transferEventOutbox = transferEventOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.backoff = Duration.ofMillis(backoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+        this.lease = Duration.ofMillis(leaseMillis);
+        workers.put(SagaStep.VALIDATE, newWorkerPool("saga-validate-", validateWorkers, queueCapacity));
+        workers.put(SagaStep.DEBIT, newWorkerPool("saga-debit-", debitWorkers, queueCapacity));
+        workers.put(SagaStep.CREDIT, newWorkerPool("saga-credit-", creditWorkers, queueCapacity));
+        workers.put(SagaStep.COMPLETE, newWorkerPool("saga-complete-", completeWorkers, queueCapacity));
+        workers.put(SagaStep.COMPENSATE, newWorkerPool("saga-compensate-", compensateWorkers, queueCapacity));
+    }
+    
+    // Returns as soon as the PENDING transaction is stored; the first step is queued once that commits.
+    // The step row starts out leased, so the poller leaves it to the fast path unless this instance goes away.
+    @Transactional
+    public TransactionResponse submit(TransferRequest request) {
+        if (isFull(SagaStep.VALIDATE)) {
+            throw new RuntimeException("Too many transfers in progress, try again later");
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        Transaction transaction = transactionRepository.save(transactionService.newTransfer(request));
+        Long transactionId = transaction.getId();
+        transferSagaRepository.insert(transactionId, SagaStep.VALIDATE, now.plus(lease), now);
+        pendingPins.put(transactionId, request.getPin());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    dispatch(transactionId, SagaStep.VALIDATE);
+                } else {
+                    pendingPins.remove(transactionId);
+                }
+            }
+        });
+        return transactionService.mapToResponseDto(transaction);
+    }
+    
+    public TransferSagaStatus getStatus(String transactionRef) {
+        Transaction transaction = transactionRepository.findByTransactionRef(transactionRef)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        
+        Object[] saga = transferSagaRepository.find(transaction.getId());
+        if (saga != null && (saga[0] == SagaStep.DONE || saga[0] == SagaStep.FAILED)) {
+            // The final status committed with the step, possibly after the first read
+            transaction = transactionRepository.findById(transaction.getId()).orElse(transaction);
+        }
+        
+        TransferSagaStatus status = new TransferSagaStatus();
+        status.setTransaction(transactionService.mapToResponseDto(transaction));
+        if (saga != null) {
+            status.setStep((SagaStep) saga[0]);
+            status.setAttempts((Integer) saga[1]);
+            status.setNextAttemptAt((LocalDateTime) saga[2]);
+            status.setLastError((String) saga[3]);
+            status.setUpdatedAt((LocalDateTime) saga[4]);
+        }
+        return status;
+    }
+    
+    // Picks up steps that are due after a backoff, a full worker pool, an expired lease or a restart.
+    // Steps whose pool is full are not claimed, so they stay due for the next run.
+    public int resumeDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        int resumed = 0;
+        for (Object[] row : transferSagaRepository.findDue(now, limit)) {
+            Long transactionId = (Long) row[0];
+            SagaStep step = (SagaStep) row[1];
+            if (!isFull(step) && transferSagaRepository.claim(transactionId, step, now, now.plus(lease))) {
+                dispatch(transactionId, step);
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        workers.forEach((step, pool) -> stats.put(step.name().toLowerCase(), Map.of(
+                "active", pool.getActiveCount(),
+                "queued", pool.getQueueSize(),
+                "queueCapacity", pool.getQueueCapacity())));
+        stats.put("pendingPins", pendingPins.size());
+        return stats;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.values().forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+    
+    // Runs one step for a saga that is still at it; a stale dispatch (the step already moved on) does nothing
+    void run(Long transactionId, SagaStep step) {
+        Object[] saga = transferSagaRepository.find(transactionId);
+        if (saga == null || saga[0] != step) {
+            return;
+        }
+        int attempts = (Integer) saga[1];
+        String lastError = (String) saga[3];
+        Transaction transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+        
+        try {
+            switch (step) {
+                case VALIDATE -> validate(transaction);
+                case DEBIT -> walletServiceClient.debit(transaction.getSenderUserId(), transaction.getAmount(),
+                        operationId(transaction, SagaStep.DEBIT));
+                case CREDIT -> walletServiceClient.credit(transaction.getReceiverUserId(), transaction.getAmount(),
+                        operationId(transaction, SagaStep.CREDIT));
+                case COMPLETE -> complete(transaction);
+                case COMPENSATE -> compensate(transaction, lastError);
+                default -> {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            onFailure(transaction, step, attempts + 1, lastError, e);
+            return;
+        }
+        
+        SagaStep next = NEXT_STEP.get(step);
+        if (next != null) {
+            moveTo(transactionId, step, next, null);
+        }
+    }
+    
+    private void validate(Transaction transaction) {
+        String pin = pendingPins.get(transaction.getId());
+        if (pin == null) {
+            throw new Rejected("Transfer was interrupted before its PIN was checked, please submit it again");
+        }
+        if (transaction.getSenderUserId().equals(transaction.getReceiverUserId())) {
+            throw new Rejected("Cannot transfer to the same wallet");
+        }
+        Map<Long, String> invalidUsers = userServiceClient.findInvalidUsers(
+                List.of(transaction.getSenderUserId(), transaction.getReceiverUserId()));
+        String userError = invalidUsers.getOrDefault(transaction.getSenderUserId(),
+                invalidUsers.get(transaction.getReceiverUserId()));
+        if (userError != null) {
+            throw new Rejected(userError);
+        }
+        if (!userServiceClient.validatePin(transaction.getSenderUserId(), pin)) {
+            throw new Rejected("Invalid PIN");
+        }
+        pendingPins.remove(transaction.getId());
+    }
+    
+    // Final status, rollups, event and saga state commit together
+    private void complete(Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!transferSagaRepository.advance(transaction.getId(), SagaStep.COMPLETE, SagaStep.DONE, null, null, now)) {
+                return;
+            }
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setCompletedAt(now);
+            transactionRepository.save(transaction);
+            transactionRollupService.recordCompleted(List.of(transaction));
+            transferEventOutbox.record(List.of(transaction));
+        });
+    }
+    
+    // The credit is reversed too: a CREDIT call still in flight when the saga gave up is voided that way
+    private void compensate(Transaction transaction, String reason) {
+        walletServiceClient.reverse(operationId(transaction, SagaStep.CREDIT));
+        walletServiceClient.reverse(operationId(transaction, SagaStep.DEBIT));
+        fail(transaction, SagaStep.COMPENSATE, reason);
+    }
+    
+    private void fail(Transaction transaction, SagaStep step, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!transferSagaRepository.advance(transaction.getId(), step, SagaStep.FAILED, null, reason, now)) {
+                return;
+            }
+            transaction.setStatus(TransactionStatus.FAILED);
+            transactionRepository.save(transaction);
+            transferEventOutbox.record(List.of(transaction));
+        });
+    }
+    
+    // VALIDATE and DEBIT give up on a rejection or after maxAttempts. Once debited, CREDIT is retried until
+    // wallet-service accepts or rejects it, and COMPLETE and COMPENSATE are retried until they succeed.
+    private void onFailure(Transaction transaction, SagaStep step, int attempts, String lastError, Exception e) {
+        Long transactionId = transaction.getId();
+        String error = step + " failed: " + e.getMessage();
+        boolean rejected = isRejection(e);
+        boolean giveUp = switch (step) {
+            case VALIDATE, DEBIT -> rejected || attempts >= maxAttempts;
+            case CREDIT -> rejected;
+            default -> false;
+        };
+        
+        if (!giveUp) {
+            log.debug("Transfer {} {} attempt {} failed, retrying: {}",
+                    transaction.getTransactionRef(), step, attempts, e.getMessage());
+            // COMPENSATE keeps the reason the transfer is being undone
+            String keptError = step == SagaStep.COMPENSATE ? lastError : error;
+            LocalDateTime now = LocalDateTime.now();
+            transferSagaRepository.retry(transactionId, step, attempts, now.plus(backoff(attempts)), keptError, now);
+            return;
+        }
+        
+        log.warn("Transfer {} {} gave up after {} attempt(s): {}",
+                transaction.getTransactionRef(), step, attempts, e.getMessage());
+        if (step == SagaStep.VALIDATE) {
+            pendingPins.remove(transactionId);
+            fail(transaction, step, rejected ? e.getMessage() : error);
+        } else {
+            moveTo(transactionId, step, SagaStep.COMPENSATE, error);
+        }
+    }
+    
+    private void moveTo(Long transactionId, SagaStep from, SagaStep to, String lastError) {
+        LocalDateTime now = LocalDateTime.now();
+        if (transferSagaRepository.advance(transactionId, from, to, now.plus(lease), lastError, now)) {
+            dispatch(transactionId, to);
+        }
+    }
+    
+    // Fast path to the step's pool; when it has no room the step is made due for the poller instead
+    private void dispatch(Long transactionId, SagaStep step) {
+        try {
+            workers.get(step).execute(() -> run(transactionId, step));
+        } catch (TaskRejectedException e) {
+            transferSagaRepository.reschedule(transactionId, step, LocalDateTime.now());
+        }
+    }
+    
+    private boolean isFull(SagaStep step) {
+        ThreadPoolTaskExecutor pool = workers.get(step);
+        return pool.getQueueSize() >= pool.getQueueCapacity();
+    }
+    
+    // Exponential, capped, with half of it jittered so retries after an outage do not arrive all at once
+    private Duration backoff(int attempts) {
+        long delay = Math.min(backoff.toMillis() << Math.min(attempts - 1, 20), maxBackoff.toMillis());
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+    
+    private static boolean isRejection(Exception e) {
+        return e instanceof Rejected || WalletServiceClient.isRefusal(e);
+    }
+    
+    private static String operationId(Transaction transaction, SagaStep step) {
+        return transaction.getTransactionRef() + "-" + step.name().toLowerCase();
+    }
+    
+    private static ThreadPoolTaskExecutor newWorkerPool(String threadNamePrefix, int workers, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        // Queued steps are dropped on shutdown and resumed by the poller later; running ones finish first
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+    
+    // A permanent failure: retrying the step cannot succeed
+    private static class Rejected extends RuntimeException {
+        Rejected(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.digitalbank.transaction.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferSagaJob {
+    
+    private final TransferSaga transferSaga;
+    
+    @Value("${transaction.saga.poll-batch-size:500}")
+    private int batchSize;
+    
+    // Steps normally hand off to the next one directly; this resumes retries and sagas left behind by a restart
+    @Scheduled(fixedDelayString = "${transaction.saga.poll-interval-ms:1000}")
+    public void resume() {
+        try {
+            int resumed = transferSaga.resumeDue(batchSize);
+            if (resumed > 0) {
+                log.debug("Resumed {} transfer saga steps", resumed);
+            }
+        } catch (Exception e) {
+            log.warn("Transfer saga poll failed, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- The clock outbox rows are stamped with and read back against: UTC, read from the database, so a reader on one
+-- instance compares created_at with the same clock the writer on another instance used. H2's CURRENT_TIMESTAMP
+-- is fixed for a whole transaction, so the in-memory database reads the JVM's UTC clock instead; it runs in the
+-- same process.
+CREATE ALIAS IF NOT EXISTS OUTBOX_CLOCK_MILLIS FOR 'java.lang.System.currentTimeMillis';
+
+CREATE VIEW IF NOT EXISTS outbox_clock AS
+SELECT CAST(DATEADD(MILLISECOND, OUTBOX_CLOCK_MILLIS(), TIMESTAMP '1970-01-01 00:00:00') AS TIMESTAMP(6)) AS utc_now;
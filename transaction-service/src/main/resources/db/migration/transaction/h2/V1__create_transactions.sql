@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS transactions (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    transaction_ref  VARCHAR(255) NOT NULL,
+    sender_user_id   BIGINT NOT NULL,
+    receiver_user_id BIGINT NOT NULL,
+    amount           DECIMAL(15,2) NOT NULL,
+    currency         VARCHAR(255) NOT NULL,
+    type             VARCHAR(255) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    description      VARCHAR(255),
+    created_at       TIMESTAMP(6) NOT NULL,
+    completed_at     TIMESTAMP(6),
+    CONSTRAINT uk_transactions_ref UNIQUE (transaction_ref)
+);
@@ -0,0 +1,5 @@
+-- H2 has no INCLUDE columns; key columns match the SQL Server indexes
+CREATE INDEX IF NOT EXISTS idx_transactions_sender_created ON transactions (sender_user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_receiver_created ON transactions (receiver_user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transactions_status_created ON transactions (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_transactions_status_amount ON transactions (status, amount DESC);
@@ -0,0 +1,28 @@
+CREATE TABLE IF NOT EXISTS user_daily_rollups (
+    user_id           BIGINT NOT NULL,
+    rollup_date       DATE NOT NULL,
+    total_sent        DECIMAL(19,2) NOT NULL,
+    total_received    DECIMAL(19,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    CONSTRAINT pk_user_daily_rollups PRIMARY KEY (user_id, rollup_date)
+);
+
+CREATE TABLE IF NOT EXISTS pair_daily_rollups (
+    sender_user_id    BIGINT NOT NULL,
+    receiver_user_id  BIGINT NOT NULL,
+    rollup_date       DATE NOT NULL,
+    total_amount      DECIMAL(19,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    CONSTRAINT pk_pair_daily_rollups PRIMARY KEY (sender_user_id, receiver_user_id, rollup_date)
+);
+
+CREATE TABLE IF NOT EXISTS daily_rollups (
+    rollup_date       DATE NOT NULL,
+    shard_no          INT NOT NULL,
+    total_volume      DECIMAL(19,2) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    CONSTRAINT pk_daily_rollups PRIMARY KEY (rollup_date, shard_no)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_daily_rollups_date ON user_daily_rollups (rollup_date);
+CREATE INDEX IF NOT EXISTS idx_pair_daily_rollups_date ON pair_daily_rollups (rollup_date);
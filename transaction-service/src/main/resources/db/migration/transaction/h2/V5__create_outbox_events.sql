@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type      VARCHAR(50) NOT NULL,
+    transaction_ref VARCHAR(255) NOT NULL,
+    payload         VARCHAR(4000) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
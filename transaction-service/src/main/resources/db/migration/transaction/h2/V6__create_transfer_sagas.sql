@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS transfer_sagas (
+    transaction_id  BIGINT NOT NULL,
+    step            VARCHAR(20) NOT NULL,
+    attempts        INT NOT NULL,
+    next_attempt_at TIMESTAMP(6),
+    last_error      VARCHAR(500),
+    updated_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_transfer_sagas PRIMARY KEY (transaction_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_transfer_sagas_next_attempt_at ON transfer_sagas (next_attempt_at);
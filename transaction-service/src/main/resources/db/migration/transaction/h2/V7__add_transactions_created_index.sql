@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_transactions_created ON transactions (created_at, id);
@@ -0,0 +1,2 @@
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS relayed_at TIMESTAMP(6);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_relayed_at ON outbox_events (relayed_at, id);
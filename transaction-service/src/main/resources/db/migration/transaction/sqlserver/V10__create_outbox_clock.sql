@@ -0,0 +1,4 @@
+-- The clock outbox rows are stamped with and read back against: UTC, read from the database, so a reader on one
+-- instance compares created_at with the same clock the writer on another instance used
+IF OBJECT_ID('dbo.outbox_clock', 'V') IS NULL
+    EXEC('CREATE VIEW outbox_clock AS SELECT CAST(SYSUTCDATETIME() AS DATETIME2(6)) AS utc_now');
@@ -0,0 +1,18 @@
+-- Guarded so the script is a no-op on databases created before migrations existed
+IF OBJECT_ID('dbo.transactions', 'U') IS NULL
+BEGIN
+    CREATE TABLE transactions (
+        id               BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        transaction_ref  VARCHAR(255) NOT NULL,
+        sender_user_id   BIGINT NOT NULL,
+        receiver_user_id BIGINT NOT NULL,
+        amount           DECIMAL(15,2) NOT NULL,
+        currency         VARCHAR(255) NOT NULL,
+        type             VARCHAR(255) NOT NULL,
+        status           VARCHAR(255) NOT NULL,
+        description      VARCHAR(255) NULL,
+        created_at       DATETIME2(6) NOT NULL,
+        completed_at     DATETIME2(6) NULL,
+        CONSTRAINT uk_transactions_ref UNIQUE (transaction_ref)
+    );
+END;
@@ -0,0 +1,22 @@
+-- History (sender OR receiver, keyset on created_at, id): SQL Server answers the OR with an index
+-- union over these two, and the summary query's per-user range scans use them as well
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_transactions_sender_created' AND object_id = OBJECT_ID('dbo.transactions'))
+    CREATE INDEX idx_transactions_sender_created
+        ON transactions (sender_user_id, created_at DESC, id DESC)
+        INCLUDE (receiver_user_id, amount, status);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_transactions_receiver_created' AND object_id = OBJECT_ID('dbo.transactions'))
+    CREATE INDEX idx_transactions_receiver_created
+        ON transactions (receiver_user_id, created_at DESC, id DESC)
+        INCLUDE (sender_user_id, amount, status);
+
+-- Daily volume and other status + date-range aggregates, covering the summed amount
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_transactions_status_created' AND object_id = OBJECT_ID('dbo.transactions'))
+    CREATE INDEX idx_transactions_status_created
+        ON transactions (status, created_at)
+        INCLUDE (amount);
+
+-- Large-transaction top-N
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_transactions_status_amount' AND object_id = OBJECT_ID('dbo.transactions'))
+    CREATE INDEX idx_transactions_status_amount
+        ON transactions (status, amount DESC);
@@ -0,0 +1,43 @@
+-- Incrementally maintained analytics rollups, bucketed by the transaction's created_at date.
+-- daily_rollups is split over shard_no rows so concurrent completions do not queue on one row per day.
+IF OBJECT_ID('dbo.user_daily_rollups', 'U') IS NULL
+BEGIN
+    CREATE TABLE user_daily_rollups (
+        user_id           BIGINT NOT NULL,
+        rollup_date       DATE NOT NULL,
+        total_sent        DECIMAL(19,2) NOT NULL,
+        total_received    DECIMAL(19,2) NOT NULL,
+        transaction_count BIGINT NOT NULL,
+        CONSTRAINT pk_user_daily_rollups PRIMARY KEY (user_id, rollup_date)
+    );
+END;
+
+IF OBJECT_ID('dbo.pair_daily_rollups', 'U') IS NULL
+BEGIN
+    CREATE TABLE pair_daily_rollups (
+        sender_user_id    BIGINT NOT NULL,
+        receiver_user_id  BIGINT NOT NULL,
+        rollup_date       DATE NOT NULL,
+        total_amount      DECIMAL(19,2) NOT NULL,
+        transaction_count BIGINT NOT NULL,
+        CONSTRAINT pk_pair_daily_rollups PRIMARY KEY (sender_user_id, receiver_user_id, rollup_date)
+    );
+END;
+
+IF OBJECT_ID('dbo.daily_rollups', 'U') IS NULL
+BEGIN
+    CREATE TABLE daily_rollups (
+        rollup_date       DATE NOT NULL,
+        shard_no          INT NOT NULL,
+        total_volume      DECIMAL(19,2) NOT NULL,
+        transaction_count BIGINT NOT NULL,
+        CONSTRAINT pk_daily_rollups PRIMARY KEY (rollup_date, shard_no)
+    );
+END;
+
+-- Rebuilds delete by date across all users and pairs
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_user_daily_rollups_date' AND object_id = OBJECT_ID('dbo.user_daily_rollups'))
+    CREATE INDEX idx_user_daily_rollups_date ON user_daily_rollups (rollup_date);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_pair_daily_rollups_date' AND object_id = OBJECT_ID('dbo.pair_daily_rollups'))
+    CREATE INDEX idx_pair_daily_rollups_date ON pair_daily_rollups (rollup_date);
@@ -0,0 +1,17 @@
+-- Client-supplied Idempotency-Key per transfer submission. The row is claimed (response NULL) before the
+-- transfer runs and receives the serialized TransactionResponse in the transfer's own database transaction.
+IF OBJECT_ID('dbo.idempotency_keys', 'U') IS NULL
+BEGIN
+    CREATE TABLE idempotency_keys (
+        idempotency_key VARCHAR(100) NOT NULL,
+        request_hash    CHAR(64) NOT NULL,
+        response        NVARCHAR(4000) NULL,
+        created_at      DATETIME2(6) NOT NULL,
+        expires_at      DATETIME2(6) NOT NULL,
+        CONSTRAINT pk_idempotency_keys PRIMARY KEY (idempotency_key)
+    );
+END;
+
+-- Expired keys are purged in expires_at order
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_idempotency_keys_expires_at' AND object_id = OBJECT_ID('dbo.idempotency_keys'))
+    CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
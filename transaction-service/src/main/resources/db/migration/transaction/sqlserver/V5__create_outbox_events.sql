@@ -0,0 +1,12 @@
+-- Transactional outbox: transfer events are inserted in the same DB transaction as the status change and
+-- deleted by the relay once every sink has them, so the table only holds events not yet published.
+IF OBJECT_ID('dbo.outbox_events', 'U') IS NULL
+BEGIN
+    CREATE TABLE outbox_events (
+        id              BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        event_type      VARCHAR(50) NOT NULL,
+        transaction_ref VARCHAR(255) NOT NULL,
+        payload         NVARCHAR(4000) NOT NULL,
+        created_at      DATETIME2(6) NOT NULL
+    );
+END;
@@ -0,0 +1,18 @@
+-- Step state of asynchronous transfers, one row per transaction. next_attempt_at is when the step is due to
+-- run (again); it is pushed forward while a worker holds the step and cleared once the saga is DONE or FAILED.
+IF OBJECT_ID('dbo.transfer_sagas', 'U') IS NULL
+BEGIN
+    CREATE TABLE transfer_sagas (
+        transaction_id  BIGINT NOT NULL,
+        step            VARCHAR(20) NOT NULL,
+        attempts        INT NOT NULL,
+        next_attempt_at DATETIME2(6) NULL,
+        last_error      NVARCHAR(500) NULL,
+        updated_at      DATETIME2(6) NOT NULL,
+        CONSTRAINT pk_transfer_sagas PRIMARY KEY (transaction_id)
+    );
+END;
+
+-- The poller looks for due steps in next_attempt_at order
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_transfer_sagas_next_attempt_at' AND object_id = OBJECT_ID('dbo.transfer_sagas'))
+    CREATE INDEX idx_transfer_sagas_next_attempt_at ON transfer_sagas (next_attempt_at);
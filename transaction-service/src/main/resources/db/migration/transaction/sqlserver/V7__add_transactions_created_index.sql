@@ -0,0 +1,4 @@
+-- Exports without a user or status filter: one ordered range scan over the period
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_transactions_created' AND object_id = OBJECT_ID('dbo.transactions'))
+    CREATE INDEX idx_transactions_created
+        ON transactions (created_at, id);
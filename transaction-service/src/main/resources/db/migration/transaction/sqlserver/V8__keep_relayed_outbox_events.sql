@@ -0,0 +1,8 @@
+-- Relayed events are marked instead of deleted and kept for the retention period, so /events can be served from
+-- the table by id. The index finds the unrelayed rows for the relay and the expired ones for the purge.
+IF COL_LENGTH('dbo.outbox_events', 'relayed_at') IS NULL
+    ALTER TABLE outbox_events ADD relayed_at DATETIME2(6) NULL;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_outbox_events_relayed_at' AND object_id = OBJECT_ID('dbo.outbox_events'))
+    CREATE INDEX idx_outbox_events_relayed_at
+        ON outbox_events (relayed_at, id);
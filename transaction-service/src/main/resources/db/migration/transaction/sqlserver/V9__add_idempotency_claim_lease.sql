@@ -0,0 +1,4 @@
+-- An in-progress claim (response NULL) is held until claimed_until; after that a retry with the same key may take
+-- it over, so a submission that died mid-transfer does not block its key until expires_at. NULL counts as lapsed.
+IF COL_LENGTH('dbo.idempotency_keys', 'claimed_until') IS NULL
+    ALTER TABLE idempotency_keys ADD claimed_until DATETIME2(6) NULL;
@@ -0,0 +1,81 @@
+package com.digitalbank.transaction.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UserServiceClientTests {
+
+	private static final long NEGATIVE_TTL_MS = 200;
+
+	private final MockServerRestTemplateCustomizer mockServer = new MockServerRestTemplateCustomizer();
+	private final UserServiceClient client = new UserServiceClient(new RestTemplateBuilder(mockServer),
+			"http://user-service", Runnable::run, 1000, 60_000, NEGATIVE_TTL_MS);
+	private final MockRestServiceServer server = mockServer.getServer();
+
+	@Test
+	void cachedUsersAreNotLookedUpAgain() {
+		expectLookup("[1]", "[{\"id\":1,\"exists\":true,\"status\":\"ACTIVE\"}]");
+
+		assertThat(client.findInvalidUsers(List.of(1L))).isEmpty();
+		assertThat(client.findInvalidUsers(List.of(1L))).isEmpty();
+		assertThat(client.findInvalidUsersAsync(List.of(1L))).isCompletedWithValue(Map.of());
+
+		server.verify();
+	}
+
+	@Test
+	void unknownUserIsCachedOnlyForTheNegativeTtl() throws InterruptedException {
+		expectLookup("[1,7]", "[{\"id\":1,\"exists\":true,\"status\":\"ACTIVE\"},{\"id\":7,\"exists\":false}]");
+
+		assertThat(client.findInvalidUsers(List.of(1L, 7L))).isEqualTo(Map.of(7L, "User not found: 7"));
+		assertThat(client.findInvalidUsers(List.of(1L, 7L))).isEqualTo(Map.of(7L, "User not found: 7"));
+		server.verify();
+
+		server.reset();
+		// Only the unknown id has expired; the active one is still served from the cache
+		Thread.sleep(NEGATIVE_TTL_MS * 2);
+		expectLookup("[7]", "[{\"id\":7,\"exists\":true,\"status\":\"ACTIVE\"}]");
+
+		assertThat(client.findInvalidUsers(List.of(1L, 7L))).isEmpty();
+		server.verify();
+	}
+
+	@Test
+	void cacheMissesAreFetchedInOneLookup() {
+		expectLookup("[1]", "[{\"id\":1,\"exists\":true,\"status\":\"ACTIVE\"}]");
+		expectLookup("[2,3]", "[{\"id\":2,\"exists\":true,\"status\":\"ACTIVE\"},{\"id\":3,\"exists\":true,\"status\":\"ACTIVE\"}]");
+
+		client.findInvalidUsers(List.of(1L));
+		assertThat(client.findInvalidUsers(List.of(1L, 2L, 3L, 2L))).isEmpty();
+
+		server.verify();
+	}
+
+	@Test
+	void userThatIsNotActiveIsRejected() {
+		expectLookup("[1,5]", "[{\"id\":1,\"exists\":true,\"status\":\"ACTIVE\"},{\"id\":5,\"exists\":true,\"status\":\"SUSPENDED\"}]");
+
+		assertThat(client.findInvalidUsers(List.of(1L, 5L))).isEqualTo(Map.of(5L, "User is not active: 5"));
+
+		server.verify();
+	}
+
+	private void expectLookup(String ids, String response) {
+		server.expect(once(), requestTo("/api/users/status"))
+				.andExpect(content().json(ids, true))
+				.andRespond(withSuccess(response, MediaType.APPLICATION_JSON));
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.digitalbank.transaction.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingTests {
+
+	interface AccountRepository {
+		Optional<String> findById(Long id);
+	}
+
+	@Repository
+	static class RollupRepository {
+		int countDays() {
+			return 7;
+		}
+	}
+
+	private final InMemorySpanExporter collector = InMemorySpanExporter.create();
+	private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+			.addSpanProcessor(SimpleSpanProcessor.create(collector))
+			.build();
+	private final Tracer tracer = new OtelTracer(tracerProvider.get("test"), new OtelCurrentTraceContext(), event -> { });
+
+	@AfterEach
+	void closeTracer() {
+		tracerProvider.close();
+	}
+
+	@Test
+	void repositoryCallBecomesChildOfCurrentSpan() {
+		AccountRepository repository = tracedRepository();
+
+		Span request = tracer.nextSpan().name("request").start();
+		try (Tracer.SpanInScope scope = tracer.withSpan(request)) {
+			assertEquals(Optional.of("account-1"), repository.findById(1L));
+		} finally {
+			request.end();
+		}
+
+		List<SpanData> spans = collector.getFinishedSpanItems();
+		assertEquals(2, spans.size());
+		SpanData call = spans.get(0);
+		assertEquals("AccountRepository.findById", call.getName());
+		assertEquals(request.context().spanId(), call.getParentSpanId());
+		assertEquals(request.context().traceId(), call.getTraceId());
+	}
+
+	@Test
+	void jdbcRepositoryClassGetsSpansToo() {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("tracer", tracer));
+		BeanPostProcessor postProcessor = TracingConfig.repositoryTracingPostProcessor(beanFactory.getBeanProvider(Tracer.class));
+		RollupRepository repository = (RollupRepository) postProcessor.postProcessAfterInitialization(
+				new RollupRepository(), "rollupRepository");
+
+		Span request = tracer.nextSpan().name("request").start();
+		try (Tracer.SpanInScope scope = tracer.withSpan(request)) {
+			assertEquals(7, repository.countDays());
+		} finally {
+			request.end();
+		}
+
+		SpanData call = collector.getFinishedSpanItems().get(0);
+		assertEquals("RollupRepository.countDays", call.getName());
+		assertEquals(request.context().spanId(), call.getParentSpanId());
+		Object service = new Object();
+		assertSame(service, postProcessor.postProcessAfterInitialization(service, "service"));
+	}
+
+	@Test
+	void repositoryCallOutsideTraceIsNotRecorded() {
+		assertEquals(Optional.of("account-1"), tracedRepository().findById(1L));
+		assertTrue(collector.getFinishedSpanItems().isEmpty());
+	}
+
+	@Test
+	void fileExporterWritesOneJsonLinePerSpan(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("spans.jsonl");
+		FileSpanExporter exporter = new FileSpanExporter(file);
+
+		Span request = tracer.nextSpan().name("request").start();
+		try (Tracer.SpanInScope scope = tracer.withSpan(request)) {
+			tracedRepository().findById(1L);
+		} finally {
+			request.end();
+		}
+		exporter.export(collector.getFinishedSpanItems());
+		exporter.shutdown();
+
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(2, lines.size());
+		JsonNode call = new ObjectMapper().readTree(lines.get(0));
+		assertEquals("AccountRepository.findById", call.get("name").asText());
+		assertEquals(request.context().spanId(), call.get("parentSpanId").asText());
+		assertEquals("findById", call.get("attributes").get("db.operation").asText());
+		assertFalse(new ObjectMapper().readTree(lines.get(1)).has("parentSpanId"));
+	}
+
+	private AccountRepository tracedRepository() {
+		ProxyFactory proxyFactory = new ProxyFactory((AccountRepository) id -> Optional.of("account-" + id));
+		proxyFactory.addInterface(AccountRepository.class);
+		proxyFactory.addAdvice(new RepositorySpanInterceptor(() -> tracer, "AccountRepository"));
+		return (AccountRepository) proxyFactory.getProxy();
+	}
+
+}
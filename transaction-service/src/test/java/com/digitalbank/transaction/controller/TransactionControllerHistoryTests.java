@@ -0,0 +1,111 @@
+package com.digitalbank.transaction.controller;
+
+import com.digitalbank.transaction.model.TransactionHistoryPage;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.service.TransactionExportService;
+import com.digitalbank.transaction.service.TransactionService;
+import com.digitalbank.transaction.service.TransferIdempotency;
+import com.digitalbank.transaction.service.TransferSaga;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TransactionController.class)
+class TransactionControllerHistoryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private TransactionService transactionService;
+
+	@MockitoBean
+	private TransferIdempotency transferIdempotency;
+
+	@MockitoBean
+	private TransferSaga transferSaga;
+
+	@MockitoBean
+	private TransactionExportService transactionExportService;
+
+	@Test
+	void withoutCursorOrLimitTheWholeHistoryComesBack() throws Exception {
+		when(transactionService.getUserTransactionHistory(7L, TransactionStatus.COMPLETED))
+				.thenReturn(List.of(response("T2"), response("T1")));
+
+		mockMvc.perform(get("/api/transactions/history/7").param("status", "COMPLETED"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist("X-Next-Cursor"))
+				.andExpect(jsonPath("$[*].transactionRef").value(contains("T2", "T1")));
+	}
+
+	@Test
+	void limitOrCursorSelectsOnePage() throws Exception {
+		when(transactionService.getUserTransactionHistory(eq(7L), isNull(), isNull(), eq(1)))
+				.thenReturn(new TransactionHistoryPage(List.of(response("T2")), "next"));
+		when(transactionService.getUserTransactionHistory(eq(7L), isNull(), eq("next"), isNull()))
+				.thenReturn(new TransactionHistoryPage(List.of(response("T1")), null));
+
+		mockMvc.perform(get("/api/transactions/history/7").param("limit", "1"))
+				.andExpect(header().string("X-Next-Cursor", "next"))
+				.andExpect(jsonPath("$[0].transactionRef").value("T2"));
+		mockMvc.perform(get("/api/transactions/history/7").param("cursor", "next"))
+				.andExpect(header().doesNotExist("X-Next-Cursor"))
+				.andExpect(jsonPath("$[0].transactionRef").value("T1"));
+	}
+
+	@Test
+	void ndjsonStreamsOneLinePerTransaction() throws Exception {
+		doAnswer(call -> {
+			Consumer<TransactionResponse> sink = call.getArgument(2);
+			sink.accept(response("T2"));
+			sink.accept(response("T1"));
+			return null;
+		}).when(transactionService).streamUserTransactionHistory(eq(7L), isNull(), any());
+
+		MvcResult started = mockMvc.perform(get("/api/transactions/history/7").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(body.lines().toList()).hasSize(2)
+				.allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"))
+				.satisfies(lines -> assertThat(lines.get(0)).contains("\"transactionRef\":\"T2\""));
+		assertThat(body).endsWith("\n");
+		verify(transactionService).streamUserTransactionHistory(eq(7L), isNull(), any());
+	}
+
+	private static TransactionResponse response(String ref) {
+		TransactionResponse response = new TransactionResponse();
+		response.setTransactionRef(ref);
+		return response;
+	}
+
+}
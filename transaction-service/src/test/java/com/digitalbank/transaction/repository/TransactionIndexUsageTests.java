@@ -0,0 +1,115 @@
+package com.digitalbank.transaction.repository;
+
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the H2 flavour of the migrations (ddl-auto=validate also checks them against the entities) and
+// EXPLAINs the SQL the repositories actually send, captured from Hibernate, with its parameters left unbound.
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.digitalbank.transaction.repository.TransactionIndexUsageTests$RecordingInspector" })
+class TransactionIndexUsageTests {
+
+	private static final Long USER_ID = 900001L;
+
+	private static final LocalDateTime CURSOR = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// Without statistics H2 costs every index alike and takes the status index for the status-filtered branches.
+	// ANALYZE commits, so the rows are seeded once, for users and days no other test reads.
+	@BeforeEach
+	void analyzeRealisticTable() {
+		RecordingInspector.STATEMENTS.clear();
+		if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE transaction_ref LIKE 'IX-%'",
+				Integer.class) == 0) {
+			jdbcTemplate.update("INSERT INTO transactions (transaction_ref, sender_user_id, receiver_user_id, amount, "
+					+ "currency, type, status, created_at) "
+					+ "SELECT 'IX-' || X, 900000 + MOD(X, 200), 900000 + MOD(X * 7, 200), 10.00, 'USD', 'TRANSFER', "
+					+ "CASE WHEN MOD(X, 10) = 0 THEN 'FAILED' ELSE 'COMPLETED' END, "
+					+ "DATEADD(MINUTE, X, TIMESTAMP '2020-01-01 00:00:00') FROM SYSTEM_RANGE(1, 4000)");
+			jdbcTemplate.execute("ANALYZE TABLE transactions");
+		}
+	}
+
+	@Test
+	void historyPagesUseSenderAndReceiverIndexes() {
+		transactionRepository.findUserTransactionsBefore(USER_ID, null, CURSOR, 100L, 51);
+		assertUsesHistoryIndexes(explainLastStatement());
+
+		transactionRepository.findUserTransactionsBefore(USER_ID, TransactionStatus.COMPLETED, CURSOR, 100L, 51);
+		assertUsesHistoryIndexes(explainLastStatement());
+	}
+
+	@Test
+	void historyStreamUsesSenderAndReceiverIndexes() {
+		try (Stream<?> rows = transactionRepository.streamUserTransactions(USER_ID, null)) {
+			rows.forEach(row -> { });
+		}
+		assertUsesHistoryIndexes(explainLastStatement());
+
+		try (Stream<?> rows = transactionRepository.streamUserTransactions(USER_ID, TransactionStatus.FAILED)) {
+			rows.forEach(row -> { });
+		}
+		assertUsesHistoryIndexes(explainLastStatement());
+	}
+
+	@Test
+	void dailyRollupRebuildUsesStatusCreatedIndex() {
+		assertThat(explain(TransactionRollupRepository.REBUILD_DAILY_SQL)).contains("IDX_TRANSACTIONS_STATUS_CREATED");
+	}
+
+	@Test
+	void largeTransactionsTopNUsesStatusAmountIndex() {
+		transactionRepository.findLargeTransactions(TransactionStatus.COMPLETED, new BigDecimal("1000"), Limit.of(10));
+
+		assertThat(explainLastStatement()).contains("IDX_TRANSACTIONS_STATUS_AMOUNT");
+	}
+
+	private static void assertUsesHistoryIndexes(String plan) {
+		assertThat(plan).contains("IDX_TRANSACTIONS_SENDER_CREATED", "IDX_TRANSACTIONS_RECEIVER_CREATED");
+	}
+
+	private String explainLastStatement() {
+		List<String> statements = RecordingInspector.STATEMENTS;
+		assertThat(statements).isNotEmpty();
+		return explain(statements.get(statements.size() - 1));
+	}
+
+	private String explain(String sql) {
+		return jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+				rs -> rs.next() ? rs.getString(1) : null);
+	}
+
+	public static class RecordingInspector implements StatementInspector {
+
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+
+	}
+
+}
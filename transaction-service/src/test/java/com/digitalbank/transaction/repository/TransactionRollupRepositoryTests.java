@@ -0,0 +1,72 @@
+package com.digitalbank.transaction.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Incremental deltas and a rebuild from the transactions table must produce the same rollups
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(TransactionRollupRepository.class)
+class TransactionRollupRepositoryTests {
+
+	private static final LocalDate DAY = LocalDate.of(2030, 1, 15);
+
+	@Autowired
+	private TransactionRollupRepository rollupRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void incrementalDeltasMatchRebuild() {
+		insertTransaction("T1", 1L, 2L, "10.00", "COMPLETED");
+		insertTransaction("T2", 1L, 2L, "5.50", "COMPLETED");
+		insertTransaction("T3", 2L, 3L, "7.00", "COMPLETED");
+		insertTransaction("T4", 1L, 3L, "99.00", "FAILED");
+
+		rollupRepository.addUserDeltas(List.<Object[]>of(
+				new Object[] { new BigDecimal("15.50"), BigDecimal.ZERO, 2L, 1L, DAY },
+				new Object[] { new BigDecimal("7.00"), new BigDecimal("15.50"), 3L, 2L, DAY }));
+		rollupRepository.addUserDeltas(List.<Object[]>of(
+				new Object[] { BigDecimal.ZERO, new BigDecimal("7.00"), 1L, 3L, DAY }));
+		rollupRepository.addPairDeltas(List.<Object[]>of(
+				new Object[] { new BigDecimal("15.50"), 2L, 1L, 2L, DAY },
+				new Object[] { new BigDecimal("7.00"), 1L, 2L, 3L, DAY }));
+		rollupRepository.addDailyDeltas(List.<Object[]>of(new Object[] { new BigDecimal("10.00"), 1L, DAY, 3 }));
+		rollupRepository.addDailyDeltas(List.<Object[]>of(new Object[] { new BigDecimal("12.50"), 2L, DAY, 5 }));
+		assertRollups();
+
+		assertThat(rollupRepository.rebuildDay(DAY)).isEqualTo(3L);
+		assertRollups();
+	}
+
+	private void assertRollups() {
+		Object[] summary = rollupRepository.getUserSummary(2L, DAY, DAY);
+		assertThat(summary[0]).isEqualTo(new BigDecimal("7.00"));
+		assertThat(summary[1]).isEqualTo(new BigDecimal("15.50"));
+		assertThat(((Number) summary[2]).longValue()).isEqualTo(3L);
+
+		List<Object[]> receivers = rollupRepository.getTopReceivers(1L, 5);
+		assertThat(receivers).hasSize(1);
+		assertThat(receivers.get(0)).containsExactly(2L, 2L, new BigDecimal("15.50"));
+
+		List<Object[]> daily = rollupRepository.getDailyVolume(DAY);
+		assertThat(daily).hasSize(1);
+		assertThat(daily.get(0)).containsExactly(DAY, 3L, new BigDecimal("22.50"));
+	}
+
+	private void insertTransaction(String ref, Long sender, Long receiver, String amount, String status) {
+		jdbcTemplate.update("INSERT INTO transactions (transaction_ref, sender_user_id, receiver_user_id, amount, " +
+				"currency, type, status, created_at) VALUES (?, ?, ?, ?, 'USD', 'TRANSFER', ?, ?)",
+				ref, sender, receiver, new BigDecimal(amount), status, DAY.atTime(12, 0));
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TopReceiversIndexTests {
+
+	private final TransactionRollupRepository repository = mock(TransactionRollupRepository.class);
+
+	@Test
+	void loadsFromRollupsAndStaysExactWithinCapacity() {
+		when(repository.getTopReceivers(1L, 4)).thenReturn(List.of(
+				new Object[] { 20L, 3L, new BigDecimal("30.00") },
+				new Object[] { 30L, 1L, new BigDecimal("5.00") }));
+		TopReceiversIndex index = new TopReceiversIndex(repository, 4, 100, 60_000);
+
+		index.getTopReceivers(1L, 2);
+		index.record(1L, 30L, new BigDecimal("5.00"));
+		index.record(1L, 30L, new BigDecimal("5.00"));
+		index.record(1L, 30L, new BigDecimal("5.00"));
+		List<Object[]> top = index.getTopReceivers(1L, 2);
+
+		assertThat(top.get(0)).containsExactly(30L, 4L, new BigDecimal("20.00"));
+		assertThat(top.get(1)).containsExactly(20L, 3L, new BigDecimal("30.00"));
+	}
+
+	@Test
+	void completionRecordedWhileRollupsAreReadIsKept() {
+		TopReceiversIndex index = new TopReceiversIndex(repository, 4, 100, 60_000);
+		// Commits after the rollup read, before the sender is installed
+		when(repository.getTopReceivers(1L, 4)).thenAnswer(invocation -> {
+			index.record(1L, 30L, new BigDecimal("5.00"));
+			return List.<Object[]>of(new Object[] { 20L, 3L, new BigDecimal("30.00") });
+		});
+
+		List<Object[]> top = index.getTopReceivers(1L, 2);
+
+		assertThat(top.get(0)).containsExactly(20L, 3L, new BigDecimal("30.00"));
+		assertThat(top.get(1)).containsExactly(30L, 1L, new BigDecimal("5.00"));
+		index.record(1L, 30L, new BigDecimal("5.00"));
+		assertThat(index.getTopReceivers(1L, 2).get(1)).containsExactly(30L, 2L, new BigDecimal("10.00"));
+	}
+
+	@Test
+	void failedLoadLeavesNothingBehind() {
+		TopReceiversIndex index = new TopReceiversIndex(repository, 4, 100, 60_000);
+		when(repository.getTopReceivers(1L, 4)).thenThrow(new RuntimeException("rollups unavailable"));
+
+		assertThatThrownBy(() -> index.getTopReceivers(1L, 2)).hasMessage("rollups unavailable");
+		index.record(1L, 30L, new BigDecimal("5.00"));
+
+		assertThat(index.size()).isZero();
+	}
+
+	@Test
+	void heavyHitterSurvivesFanOutBeyondCapacity() {
+		when(repository.getTopReceivers(anyLong(), anyInt())).thenReturn(List.of());
+		TopReceiversIndex index = new TopReceiversIndex(repository, 4, 100, 60_000);
+		index.getTopReceivers(1L, 1);
+
+		// Receiver 7 gets a third of the transfers, spread among 300 one-off receivers
+		for (long i = 0; i < 300; i++) {
+			index.record(1L, 1000L + i, BigDecimal.ONE);
+			if (i % 2 == 0) {
+				index.record(1L, 7L, BigDecimal.ONE);
+			}
+		}
+
+		List<Object[]> top = index.getTopReceivers(1L, 1);
+		assertThat(top.get(0)[0]).isEqualTo(7L);
+		assertThat((Long) top.get(0)[1]).isGreaterThanOrEqualTo(150L);
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedSenders() {
+		when(repository.getTopReceivers(anyLong(), anyInt())).thenReturn(List.of());
+		TopReceiversIndex index = new TopReceiversIndex(repository, 4, 2, 60_000);
+
+		index.getTopReceivers(1L, 1);
+		index.getTopReceivers(2L, 1);
+		index.getTopReceivers(1L, 1);
+		index.getTopReceivers(3L, 1);
+		assertThat(index.size()).isEqualTo(2);
+
+		// Sender 2 was the coldest, so it has to be read from the rollups again
+		index.getTopReceivers(2L, 1);
+		verify(repository, times(2)).getTopReceivers(2L, 4);
+		verify(repository, times(1)).getTopReceivers(1L, 4);
+	}
+
+}
@@ -0,0 +1,170 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.model.BatchTransferResult;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.OutboxRepository;
+import com.digitalbank.transaction.repository.TransactionBatchRepository;
+import com.digitalbank.transaction.repository.TransactionRepository;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"transaction.batch.chunk-size=2",
+		"transaction.batch.reconcile-after-ms=0" })
+@Import({ TransactionService.class, TransactionBatchRepository.class, TransactionRollupService.class,
+		TransactionRollupRepository.class, TopReceiversIndex.class, TransferMetrics.class, SimpleMeterRegistry.class,
+		TransferEventOutbox.class, OutboxRepository.class, JacksonAutoConfiguration.class })
+class TransactionBatchTransferTests {
+
+	@MockitoBean
+	private UserServiceClient userServiceClient;
+
+	@MockitoBean
+	private WalletServiceClient walletServiceClient;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void validUsers() {
+		when(userServiceClient.findInvalidUsersAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+		when(userServiceClient.validatePinAsync(anyLong(), anyString()))
+				.thenReturn(CompletableFuture.completedFuture(true));
+	}
+
+	@Test
+	void eachChunkIsOneWalletCallCarryingTransactionRefs() {
+		when(walletServiceClient.transferBatch(any())).thenAnswer(call -> Arrays.asList(
+				new String[call.<List<?>>getArgument(0).size()]));
+
+		List<List<BatchTransferResult>> chunks = transfer(5);
+
+		assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+		assertThat(chunks.stream().flatMap(List::stream)).extracting(BatchTransferResult::getIndex)
+				.containsExactly(0, 1, 2, 3, 4);
+		List<List<Map<String, Object>>> sent = sentBatches(3);
+		for (int i = 0; i < chunks.size(); i++) {
+			assertThat(sent.get(i)).extracting(item -> item.get("operationId"))
+					.isEqualTo(chunks.get(i).stream().map(result -> result.getTransaction().getTransactionRef()).toList());
+		}
+		assertThat(statuses(chunks.stream().flatMap(List::stream).toList())).containsOnly(TransactionStatus.COMPLETED);
+	}
+
+	@Test
+	void rejectedItemFailsAlone() {
+		when(walletServiceClient.transferBatch(any())).thenReturn(Arrays.asList(null, "Insufficient balance"));
+
+		List<BatchTransferResult> results = transfer(2).get(0);
+
+		assertThat(statuses(results)).containsExactly(TransactionStatus.COMPLETED, TransactionStatus.FAILED);
+		assertThat(results).extracting(BatchTransferResult::getError)
+				.containsExactly(null, "Transfer failed: Insufficient balance");
+		assertThat(outboxEvents()).isEqualTo(2);
+	}
+
+	@Test
+	void refusedChunkFailsEveryItem() {
+		when(walletServiceClient.transferBatch(any()))
+				.thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+
+		List<BatchTransferResult> results = transfer(2).get(0);
+
+		assertThat(statuses(results)).containsOnly(TransactionStatus.FAILED);
+		assertThat(results).extracting(BatchTransferResult::getError)
+				.containsOnly("Transfer failed: Could not transfer balance");
+	}
+
+	@Test
+	void timedOutChunkStaysPendingUntilReconciled() {
+		when(walletServiceClient.transferBatch(any())).thenThrow(new ResourceAccessException("Read timed out"));
+
+		List<BatchTransferResult> results = transfer(2).get(0);
+
+		assertThat(statuses(results)).containsOnly(TransactionStatus.PENDING);
+		assertThat(results).extracting(BatchTransferResult::getError)
+				.containsOnly("Transfer pending: wallet-service did not respond");
+		assertThat(outboxEvents()).isZero();
+
+		// The resend answers for both attempts: the first item had gone through, the second had not and is refused now
+		doReturn(Arrays.asList(null, "Insufficient balance")).when(walletServiceClient).transferBatch(any());
+		assertThat(transactionService.reconcilePendingTransfers(100)).isEqualTo(2);
+
+		assertThat(statuses(results)).containsExactly(TransactionStatus.COMPLETED, TransactionStatus.FAILED);
+		assertThat(sentBatches(2).get(1)).extracting(item -> item.get("operationId"))
+				.isEqualTo(sentBatches(2).get(0).stream().map(item -> item.get("operationId")).toList());
+		assertThat(outboxEvents()).isEqualTo(2);
+		assertThat(transactionService.reconcilePendingTransfers(100)).isZero();
+	}
+
+	private List<List<BatchTransferResult>> transfer(int count) {
+		List<TransferRequest> requests = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			TransferRequest request = new TransferRequest();
+			request.setSenderUserId(1L);
+			request.setReceiverUserId(2L + i);
+			request.setAmount(new BigDecimal("25.00"));
+			request.setPin("123456");
+			requests.add(request);
+		}
+		List<List<BatchTransferResult>> chunks = new ArrayList<>();
+		transactionService.transferBatch(requests, chunks::add);
+		return chunks;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<List<Map<String, Object>>> sentBatches(int calls) {
+		ArgumentCaptor<List<Map<String, Object>>> batches = ArgumentCaptor.forClass(List.class);
+		verify(walletServiceClient, times(calls)).transferBatch(batches.capture());
+		return batches.getAllValues();
+	}
+
+	private List<TransactionStatus> statuses(List<BatchTransferResult> results) {
+		return results.stream()
+				.map(result -> transactionRepository.findByTransactionRef(result.getTransaction().getTransactionRef())
+						.orElseThrow().getStatus())
+				.toList();
+	}
+
+	private int outboxEvents() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class);
+	}
+
+}
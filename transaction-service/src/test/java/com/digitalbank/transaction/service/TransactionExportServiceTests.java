@@ -0,0 +1,157 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.model.common.TransactionType;
+import com.digitalbank.transaction.repository.TransactionBatchRepository;
+import com.digitalbank.transaction.repository.TransactionExportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"transaction.export.fetch-size=2",
+		"transaction.export.dir=target/test-exports" })
+@Import({ TransactionExportService.class, TransactionExportRepository.class, TransactionBatchRepository.class })
+class TransactionExportServiceTests {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 9, 15);
+
+	@Autowired
+	private TransactionExportService exportService;
+
+	@Autowired
+	private TransactionBatchRepository transactionBatchRepository;
+
+	@BeforeEach
+	void insertTransactions() {
+		transactionBatchRepository.insertAll(List.of(
+				transaction("E1", 1L, 2L, TransactionStatus.COMPLETED, DAY.atTime(9, 0), "Rent"),
+				transaction("E2", 2L, 3L, TransactionStatus.FAILED, DAY.atTime(10, 0), "Dinner, \"Luigi's\""),
+				transaction("E3", 3L, 1L, TransactionStatus.COMPLETED, DAY.plusDays(1).atTime(0, 0), null),
+				transaction("E4", 1L, 3L, TransactionStatus.COMPLETED, DAY.minusDays(1).atTime(23, 59), null)));
+	}
+
+	@Test
+	void exportsTheRangeOldestFirst() {
+		List<String> lines = export(DAY, DAY, null, null);
+
+		assertThat(lines).containsExactly(
+				TransactionExportService.CSV_HEADER,
+				"E1,TRANSFER,COMPLETED,1,2,25.00,USD,Rent,2026-09-15T09:00:00,",
+				"E2,TRANSFER,FAILED,2,3,25.00,USD,\"Dinner, \"\"Luigi's\"\"\",2026-09-15T10:00:00,");
+	}
+
+	@Test
+	void filtersByUserAndStatus() {
+		assertThat(export(DAY.minusDays(1), DAY.plusDays(1), 1L, TransactionStatus.COMPLETED))
+				.extracting(line -> line.split(",")[0])
+				.containsExactly("transaction_ref", "E4", "E1", "E3");
+		assertThat(export(DAY.minusDays(1), DAY.plusDays(1), null, TransactionStatus.FAILED)).hasSize(2);
+	}
+
+	@Test
+	void fileExportAppearsComplete() throws Exception {
+		Map<String, Object> result = exportService.exportToFile(DAY, DAY.plusDays(1), 3L, null);
+
+		Path file = Path.of((String) result.get("file"));
+		assertThat(file.getFileName().toString()).isEqualTo("transactions-2026-09-15-2026-09-16-user-3.csv");
+		assertThat(result.get("rows")).isEqualTo(2L);
+		assertThat(Files.readAllLines(file)).hasSize(3);
+		try (Stream<Path> siblings = Files.list(file.getParent())) {
+			assertThat(siblings).noneMatch(sibling -> sibling.toString().endsWith(".part"));
+		}
+	}
+
+	// The workers run outside the test transaction and see no rows; what matters is that every export completes
+	// and the file left behind is one of them whole, header included
+	@Test
+	void concurrentExportsOfOneRangeDoNotShareAPartialFile() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Map<String, Object>> results = new ArrayList<>();
+		try {
+			List<Future<Map<String, Object>>> exports = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				exports.add(executor.submit(() -> exportService.exportToFile(DAY, DAY, 9L, null)));
+			}
+			for (Future<Map<String, Object>> export : exports) {
+				results.add(export.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		Path file = Path.of((String) results.get(0).get("file"));
+		assertThat(results).extracting(result -> result.get("file")).containsOnly(file.toString());
+		assertThat(Files.readAllLines(file)).containsExactly(TransactionExportService.CSV_HEADER);
+		try (Stream<Path> siblings = Files.list(file.getParent())) {
+			assertThat(siblings).noneMatch(sibling -> sibling.toString().endsWith(".part"));
+		}
+	}
+
+	@Test
+	void formulaLikeTextIsNeutralized() {
+		transactionBatchRepository.insertAll(List.of(
+				transaction("=1+2", 4L, 5L, TransactionStatus.COMPLETED, DAY.plusDays(5).atTime(9, 0),
+						"=HYPERLINK(\"http://x\",\"y\")"),
+				transaction("F2", 4L, 5L, TransactionStatus.COMPLETED, DAY.plusDays(5).atTime(10, 0), "+1"),
+				transaction("F3", 4L, 5L, TransactionStatus.COMPLETED, DAY.plusDays(5).atTime(11, 0), "-2, or @SUM(A1)"),
+				transaction("F4", 4L, 5L, TransactionStatus.COMPLETED, DAY.plusDays(5).atTime(12, 0), "@SUM(A1)")));
+
+		assertThat(export(DAY.plusDays(5), DAY.plusDays(5), null, null)).containsExactly(
+				TransactionExportService.CSV_HEADER,
+				"'=1+2,TRANSFER,COMPLETED,4,5,25.00,USD,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",2026-09-20T09:00:00,",
+				"F2,TRANSFER,COMPLETED,4,5,25.00,USD,'+1,2026-09-20T10:00:00,",
+				"F3,TRANSFER,COMPLETED,4,5,25.00,USD,\"'-2, or @SUM(A1)\",2026-09-20T11:00:00,",
+				"F4,TRANSFER,COMPLETED,4,5,25.00,USD,'@SUM(A1),2026-09-20T12:00:00,");
+	}
+
+	@Test
+	void rangeMustNotEndBeforeItStarts() {
+		assertThatThrownBy(() -> export(DAY, DAY.minusDays(1), null, null))
+				.hasMessage("Export range must not end before it starts");
+	}
+
+	private List<String> export(LocalDate from, LocalDate to, Long userId, TransactionStatus status) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exportService.writeCsv(from, to, userId, status, out);
+		return out.toString(StandardCharsets.UTF_8).lines().toList();
+	}
+
+	private static Transaction transaction(String ref, Long sender, Long receiver, TransactionStatus status,
+			LocalDateTime createdAt, String description) {
+		Transaction transaction = new Transaction();
+		transaction.setTransactionRef(ref);
+		transaction.setSenderUserId(sender);
+		transaction.setReceiverUserId(receiver);
+		transaction.setAmount(new BigDecimal("25.00"));
+		transaction.setCurrency("USD");
+		transaction.setType(TransactionType.TRANSFER);
+		transaction.setStatus(status);
+		transaction.setDescription(description);
+		transaction.setCreatedAt(createdAt);
+		return transaction;
+	}
+
+}
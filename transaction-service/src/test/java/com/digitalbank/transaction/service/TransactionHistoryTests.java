@@ -0,0 +1,140 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.TransactionHistoryPage;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.model.common.TransactionType;
+import com.digitalbank.transaction.repository.OutboxRepository;
+import com.digitalbank.transaction.repository.TransactionBatchRepository;
+import com.digitalbank.transaction.repository.TransactionRepository;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"transaction.history.default-page-size=3" })
+@Import({ TransactionService.class, TransactionBatchRepository.class, TransactionRollupService.class,
+		TransactionRollupRepository.class, TopReceiversIndex.class, TransferMetrics.class, SimpleMeterRegistry.class,
+		TransferEventOutbox.class, OutboxRepository.class, JacksonAutoConfiguration.class })
+class TransactionHistoryTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+	@MockitoBean
+	private UserServiceClient userServiceClient;
+
+	@MockitoBean
+	private WalletServiceClient walletServiceClient;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionBatchRepository transactionBatchRepository;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	// H5 is the newest; H3 and H4 share a timestamp, so the id breaks the tie; H3 is a self-transfer
+	@BeforeEach
+	void insertHistory() {
+		transactionBatchRepository.insertAll(List.of(
+				transaction("H1", 41L, 42L, TransactionStatus.COMPLETED, START),
+				transaction("H2", 42L, 41L, TransactionStatus.COMPLETED, START.plusMinutes(1)),
+				transaction("H3", 41L, 41L, TransactionStatus.COMPLETED, START.plusMinutes(2)),
+				transaction("H4", 43L, 41L, TransactionStatus.COMPLETED, START.plusMinutes(2)),
+				transaction("H5", 41L, 43L, TransactionStatus.FAILED, START.plusMinutes(3)),
+				transaction("H6", 42L, 43L, TransactionStatus.COMPLETED, START.plusMinutes(4))));
+	}
+
+	@Test
+	void pagesFollowTheCursorNewestFirst() {
+		List<List<String>> pages = new ArrayList<>();
+		String cursor = null;
+		do {
+			TransactionHistoryPage page = transactionService.getUserTransactionHistory(41L, null, cursor, 2);
+			pages.add(refs(page.getTransactions()));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(pages).containsExactly(List.of("H5", "H4"), List.of("H3", "H2"), List.of("H1"));
+	}
+
+	@Test
+	void statusFilterAndDefaultPageSizeApplyInTheQuery() {
+		TransactionHistoryPage first = transactionService.getUserTransactionHistory(41L, TransactionStatus.COMPLETED,
+				null, null);
+		TransactionHistoryPage second = transactionService.getUserTransactionHistory(41L, TransactionStatus.COMPLETED,
+				first.getNextCursor(), null);
+
+		assertThat(refs(first.getTransactions())).containsExactly("H4", "H3", "H2");
+		assertThat(refs(second.getTransactions())).containsExactly("H1");
+		assertThat(second.getNextCursor()).isNull();
+	}
+
+	@Test
+	void cursorIsTheLastRowsPosition() {
+		TransactionHistoryPage page = transactionService.getUserTransactionHistory(41L, null, null, 1);
+		Transaction last = transactionRepository.findByTransactionRef("H5").orElseThrow();
+
+		assertThat(new String(Base64.getUrlDecoder().decode(page.getNextCursor()), StandardCharsets.UTF_8))
+				.isEqualTo(last.getCreatedAt() + "|" + last.getId());
+		assertThat(page.getNextCursor()).doesNotContain("=", "+", "/");
+		assertThatThrownBy(() -> transactionService.getUserTransactionHistory(41L, null, "not a cursor!", 1))
+				.hasMessage("Invalid cursor");
+		assertThatThrownBy(() -> transactionService.getUserTransactionHistory(41L, null,
+				Base64.getUrlEncoder().encodeToString("2026-03-01T12:00".getBytes(StandardCharsets.UTF_8)), 1))
+				.hasMessage("Invalid cursor");
+	}
+
+	@Test
+	void unpagedAndStreamedHistoryHoldEveryRow() {
+		List<TransactionResponse> streamed = new ArrayList<>();
+		transactionService.streamUserTransactionHistory(41L, null, streamed::add);
+
+		assertThat(refs(transactionService.getUserTransactionHistory(41L, null)))
+				.containsExactly("H5", "H4", "H3", "H2", "H1");
+		assertThat(refs(streamed)).containsExactly("H5", "H4", "H3", "H2", "H1");
+		assertThat(refs(transactionService.getUserTransactionHistory(41L, TransactionStatus.FAILED)))
+				.containsExactly("H5");
+	}
+
+	private static List<String> refs(List<TransactionResponse> transactions) {
+		return transactions.stream().map(TransactionResponse::getTransactionRef).toList();
+	}
+
+	private static Transaction transaction(String ref, Long sender, Long receiver, TransactionStatus status,
+			LocalDateTime createdAt) {
+		Transaction transaction = new Transaction();
+		transaction.setTransactionRef(ref);
+		transaction.setSenderUserId(sender);
+		transaction.setReceiverUserId(receiver);
+		transaction.setAmount(new BigDecimal("25.00"));
+		transaction.setCurrency("USD");
+		transaction.setType(TransactionType.TRANSFER);
+		transaction.setStatus(status);
+		transaction.setCreatedAt(createdAt);
+		return transaction;
+	}
+
+}
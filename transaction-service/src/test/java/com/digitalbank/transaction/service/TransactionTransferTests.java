@@ -0,0 +1,121 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.OutboxRepository;
+import com.digitalbank.transaction.repository.TransactionBatchRepository;
+import com.digitalbank.transaction.repository.TransactionRepository;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+// transfer() commits on its own, so the outcome is read back the way a later request would see it
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"transaction.batch.reconcile-after-ms=0" })
+@Import({ TransactionService.class, TransactionBatchRepository.class, TransactionRollupService.class,
+		TransactionRollupRepository.class, TopReceiversIndex.class, TransferMetrics.class, SimpleMeterRegistry.class,
+		TransferEventOutbox.class, OutboxRepository.class, JacksonAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionTransferTests {
+
+	@MockitoBean
+	private UserServiceClient userServiceClient;
+
+	@MockitoBean
+	private WalletServiceClient walletServiceClient;
+
+	@Autowired
+	private TransactionService transactionService;
+
+	@Autowired
+	private TransactionRepository transactionRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void validUsers() {
+		when(userServiceClient.findInvalidUsersAsync(any())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+		when(userServiceClient.validatePinAsync(anyLong(), anyString()))
+				.thenReturn(CompletableFuture.completedFuture(true));
+	}
+
+	@Test
+	void refusedTransferIsRecordedAsFailed() {
+		doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR, "Insufficient balance"))
+				.when(walletServiceClient).transferBalance(anyLong(), anyLong(), any(), anyString());
+
+		assertThatThrownBy(() -> transactionService.transfer(request(11L)))
+				.isInstanceOf(TransferFailedException.class)
+				.hasMessage("Transfer failed: Could not transfer balance");
+		assertThat(statusesOf(11L)).containsExactly(TransactionStatus.FAILED);
+		assertThat(outboxEvents(11L)).isEqualTo(1);
+	}
+
+	@Test
+	void unansweredTransferStaysPendingUntilReconciled() {
+		doThrow(new ResourceAccessException("Read timed out"))
+				.when(walletServiceClient).transferBalance(anyLong(), anyLong(), any(), anyString());
+
+		TransactionResponse response = transactionService.transfer(request(12L));
+
+		assertThat(response.getStatus()).isEqualTo(TransactionStatus.PENDING);
+		assertThat(statusesOf(12L)).containsExactly(TransactionStatus.PENDING);
+		assertThat(outboxEvents(12L)).isZero();
+
+		when(walletServiceClient.transferBatch(any())).thenReturn(Arrays.asList((String) null));
+		transactionService.reconcilePendingTransfers(100);
+		assertThat(statusesOf(12L)).containsExactly(TransactionStatus.COMPLETED);
+		assertThat(outboxEvents(12L)).isEqualTo(1);
+	}
+
+	private List<TransactionStatus> statusesOf(Long senderUserId) {
+		return transactionRepository.findBySenderUserId(senderUserId).stream().map(Transaction::getStatus).toList();
+	}
+
+	private int outboxEvents(Long senderUserId) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events e JOIN transactions t "
+				+ "ON t.transaction_ref = e.transaction_ref WHERE t.sender_user_id = ?", Integer.class, senderUserId);
+	}
+
+	private static TransferRequest request(Long sender) {
+		TransferRequest request = new TransferRequest();
+		request.setSenderUserId(sender);
+		request.setReceiverUserId(2L);
+		request.setAmount(new BigDecimal("25.00"));
+		request.setPin("123456");
+		return request;
+	}
+
+}
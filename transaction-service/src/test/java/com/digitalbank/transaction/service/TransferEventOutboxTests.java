@@ -0,0 +1,195 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.entity.Transaction;
+import com.digitalbank.transaction.model.TransferEvent;
+import com.digitalbank.transaction.model.TransferEventPage;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.model.common.TransactionType;
+import com.digitalbank.transaction.model.common.TransferEventType;
+import com.digitalbank.transaction.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+// Events are recorded in the caller's transaction and relayed only once committed, so these tests commit for real
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"transaction.outbox.batch-size=2",
+		"transaction.outbox.read-lag-ms=0",
+		"transaction.outbox.retention-ms=0" })
+@Import({ OutboxRepository.class, TransferEventOutbox.class, TransferEventOutboxTests.FlakySink.class,
+		JacksonAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferEventOutboxTests {
+
+	@TestConfiguration
+	static class FlakySink implements TransferEventSink {
+
+		boolean failing;
+
+		@Bean
+		FlakySink flakySink() {
+			return this;
+		}
+
+		@Override
+		public void publish(List<TransferEvent> events) throws Exception {
+			if (failing) {
+				throw new Exception("sink unavailable");
+			}
+		}
+	}
+
+	@Autowired
+	private TransferEventOutbox outbox;
+
+	@Autowired
+	private FlakySink flakySink;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void emptyOutbox() {
+		jdbcTemplate.update("DELETE FROM outbox_events");
+		flakySink.failing = false;
+	}
+
+	@Test
+	void finalStatusesAreRelayedInOutboxOrder() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> outbox.record(List.of(
+				transaction("T1", TransactionStatus.COMPLETED),
+				transaction("T2", TransactionStatus.PENDING),
+				transaction("T3", TransactionStatus.FAILED),
+				transaction("T4", TransactionStatus.COMPLETED))));
+		assertThat(outboxSize()).isEqualTo(3);
+
+		assertThat(outbox.relay()).isEqualTo(2);
+		assertThat(outbox.relay()).isEqualTo(1);
+		assertThat(outbox.relay()).isZero();
+		assertThat(outboxSize()).isZero();
+
+		TransferEventPage page = outbox.read(0, 10);
+		assertThat(page.getEvents()).extracting(TransferEvent::getTransactionRef).containsExactly("T1", "T3", "T4");
+		assertThat(page.getEvents()).extracting(TransferEvent::getType).containsExactly(
+				TransferEventType.TRANSFER_COMPLETED, TransferEventType.TRANSFER_FAILED, TransferEventType.TRANSFER_COMPLETED);
+		assertThat(page.getEvents().get(0).getEventId()).isLessThan(page.getEvents().get(1).getEventId());
+		assertThat(page.getEvents().get(0).getAmount()).isEqualByComparingTo("25.00");
+		assertThat(page.getNextOffset()).isEqualTo(page.getEvents().get(2).getEventId());
+		assertThat(outbox.read(page.getNextOffset(), 10).getEvents()).isEmpty();
+		assertThat(outbox.read(page.getEvents().get(0).getEventId(), 1).getEvents())
+				.extracting(TransferEvent::getTransactionRef).containsExactly("T3");
+	}
+
+	@Test
+	void onlyRelayedEventsArePurged() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> outbox.record(List.of(
+				transaction("T8", TransactionStatus.COMPLETED),
+				transaction("T9", TransactionStatus.COMPLETED),
+				transaction("T10", TransactionStatus.COMPLETED))));
+		outbox.relay();
+
+		assertThat(outbox.purgeRelayed()).isEqualTo(2);
+		assertThat(outbox.read(0, 10).getEvents()).extracting(TransferEvent::getTransactionRef).containsExactly("T10");
+	}
+
+	@Test
+	void eventsAreStampedAndAgedOnTheDatabaseUtcClock() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> outbox.record(List.of(
+				transaction("T11", TransactionStatus.COMPLETED))));
+
+		LocalDateTime createdAt = jdbcTemplate.queryForObject(
+				"SELECT created_at FROM outbox_events WHERE transaction_ref = 'T11'", LocalDateTime.class);
+		assertThat(createdAt).isCloseTo(LocalDateTime.now(ZoneOffset.UTC), within(5, ChronoUnit.SECONDS));
+		assertThat(outbox.read(0, 10).getEvents()).extracting(TransferEvent::getTransactionRef).containsExactly("T11");
+
+		// Younger than the lag by the database clock, whatever this instance's clock says
+		jdbcTemplate.update("UPDATE outbox_events SET created_at = (SELECT DATEADD(MINUTE, 1, utc_now) FROM outbox_clock)");
+		assertThat(outbox.read(0, 10).getEvents()).isEmpty();
+	}
+
+	@Test
+	void rolledBackTransferLeavesNoEvent() {
+		assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+			outbox.record(List.of(transaction("T5", TransactionStatus.COMPLETED)));
+			throw new RuntimeException("Transfer failed");
+		})).hasMessage("Transfer failed");
+		assertThat(outboxSize()).isZero();
+	}
+
+	@Test
+	void recordingOutsideTransactionIsRejected() {
+		assertThatThrownBy(() -> outbox.record(List.of(transaction("T6", TransactionStatus.COMPLETED))))
+				.isInstanceOf(IllegalTransactionStateException.class);
+	}
+
+	@Test
+	void failedSinkKeepsEventsForNextRelay() throws Exception {
+		transactionTemplate.executeWithoutResult(status -> outbox.record(List.of(
+				transaction("T7", TransactionStatus.COMPLETED))));
+
+		flakySink.failing = true;
+		assertThatThrownBy(() -> outbox.relay()).hasMessage("sink unavailable");
+		assertThat(outboxSize()).isEqualTo(1);
+
+		flakySink.failing = false;
+		assertThat(outbox.relay()).isEqualTo(1);
+		assertThat(outboxSize()).isZero();
+	}
+
+	@Test
+	void memoryLogKeepsTheMostRecentEvents() {
+		InMemoryTransferEventLog log = new InMemoryTransferEventLog(3);
+		for (int i = 0; i < 5; i++) {
+			TransferEvent event = new TransferEvent();
+			event.setEventId((long) i);
+			log.publish(List.of(event));
+		}
+
+		TransferEventPage page = log.read(0, 10);
+		assertThat(page.getEvents()).extracting(TransferEvent::getEventId).containsExactly(2L, 3L, 4L);
+		assertThat(page.getNextOffset()).isEqualTo(5);
+		assertThat(log.read(3, 1).getEvents()).extracting(TransferEvent::getEventId).containsExactly(3L);
+	}
+
+	private int outboxSize() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE relayed_at IS NULL", Integer.class);
+	}
+
+	private static Transaction transaction(String ref, TransactionStatus status) {
+		Transaction transaction = new Transaction();
+		transaction.setTransactionRef(ref);
+		transaction.setSenderUserId(1L);
+		transaction.setReceiverUserId(2L);
+		transaction.setAmount(new BigDecimal("25.00"));
+		transaction.setCurrency("USD");
+		transaction.setType(TransactionType.TRANSFER);
+		transaction.setStatus(status);
+		transaction.setCreatedAt(LocalDateTime.now());
+		return transaction;
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Claims must commit on their own, so these tests run outside the usual rolled-back test transaction
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ IdempotencyKeyRepository.class, TransferIdempotency.class, JacksonAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferIdempotencyTests {
+
+	@Autowired
+	private TransferIdempotency transferIdempotency;
+
+	@Autowired
+	private IdempotencyKeyRepository idempotencyKeyRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final AtomicInteger transfers = new AtomicInteger();
+
+	@Test
+	void retryReturnsStoredResponseWithoutTransferringAgain() {
+		TransactionResponse first = transferIdempotency.execute("replay", request("10.00"), this::transfer);
+		TransactionResponse retry = transferIdempotency.execute("replay", request("10.0"), this::transfer);
+
+		assertThat(transfers).hasValue(1);
+		assertThat(retry.getTransactionRef()).isEqualTo(first.getTransactionRef());
+		assertThat(storedResponse("replay")).contains(first.getTransactionRef());
+	}
+
+	@Test
+	void keyReusedForDifferentTransferIsRejected() {
+		transferIdempotency.execute("reused", request("10.00"), this::transfer);
+
+		assertThatThrownBy(() -> transferIdempotency.execute("reused", request("20.00"), this::transfer))
+				.hasMessage("Idempotency-Key was already used for a different transfer");
+		assertThat(transfers).hasValue(1);
+	}
+
+	@Test
+	void failedTransferReleasesKey() {
+		assertThatThrownBy(() -> transferIdempotency.execute("failed", request("10.00"), () -> {
+			throw new RuntimeException("Transfer failed: Insufficient balance");
+		})).hasMessageContaining("Insufficient balance");
+		assertThat(idempotencyKeyRepository.find("failed")).isNull();
+
+		transferIdempotency.execute("failed", request("10.00"), this::transfer);
+		assertThat(transfers).hasValue(1);
+	}
+
+	@Test
+	void claimStillInProgressIsNotRunTwice() {
+		transferIdempotency.execute("running", request("10.00"), () -> {
+			assertThatThrownBy(() -> transferIdempotency.execute("running", request("10.00"), this::transfer))
+					.hasMessage("A transfer with this Idempotency-Key is still in progress");
+			return transfer();
+		});
+		assertThat(transfers).hasValue(1);
+	}
+
+	@Test
+	void claimWhoseLeaseRanOutIsTakenOver() {
+		// A submission that died mid-transfer: claimed, never completed nor released
+		LocalDateTime now = LocalDateTime.now();
+		String requestHash = TransferIdempotency.hash(request("10.00"));
+		idempotencyKeyRepository.claim("abandoned", requestHash, now.minusMinutes(5), now.minusMinutes(1), now.plusDays(1));
+		idempotencyKeyRepository.claim("leased", requestHash, now, now.plusMinutes(1), now.plusDays(1));
+
+		TransactionResponse response = transferIdempotency.execute("abandoned", request("10.00"), this::transfer);
+		assertThat(transfers).hasValue(1);
+		assertThat(storedResponse("abandoned")).contains(response.getTransactionRef());
+		assertThatThrownBy(() -> transferIdempotency.execute("leased", request("10.00"), this::transfer))
+				.hasMessage("A transfer with this Idempotency-Key is still in progress");
+		assertThat(idempotencyKeyRepository.takeOver("abandoned", requestHash, now, now.plusMinutes(1))).isFalse();
+	}
+
+	@Test
+	void expiredKeysArePurgedAndCanBeReused() {
+		LocalDateTime past = LocalDateTime.now().minusDays(2);
+		assertThat(idempotencyKeyRepository.claim("expired", "0".repeat(64), past, past, past.plusDays(1))).isTrue();
+
+		transferIdempotency.execute("expired", request("10.00"), this::transfer);
+		assertThat(transfers).hasValue(1);
+
+		idempotencyKeyRepository.claim("old", "0".repeat(64), past, past, past.plusDays(1));
+		assertThat(transferIdempotency.purgeExpired()).isEqualTo(1);
+		assertThat(idempotencyKeyRepository.find("old")).isNull();
+		assertThat(idempotencyKeyRepository.find("expired")).isNotNull();
+	}
+
+	private TransactionResponse transfer() {
+		TransactionResponse response = new TransactionResponse();
+		response.setId((long) transfers.incrementAndGet());
+		response.setTransactionRef("TXN" + response.getId() + System.nanoTime());
+		response.setAmount(new BigDecimal("10.00"));
+		response.setStatus(TransactionStatus.COMPLETED);
+		response.setCreatedAt(LocalDateTime.now());
+		return response;
+	}
+
+	private static TransferRequest request(String amount) {
+		TransferRequest request = new TransferRequest();
+		request.setSenderUserId(1L);
+		request.setReceiverUserId(2L);
+		request.setAmount(new BigDecimal(amount));
+		request.setPin("123456");
+		return request;
+	}
+
+	private String storedResponse(String key) {
+		return jdbcTemplate.queryForObject(
+				"SELECT response FROM idempotency_keys WHERE idempotency_key = ?", String.class, key);
+	}
+
+}
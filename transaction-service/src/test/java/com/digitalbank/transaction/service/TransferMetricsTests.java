@@ -0,0 +1,43 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.service.TransferMetrics.Outcome;
+import com.digitalbank.transaction.service.TransferMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final TransferMetrics metrics = new TransferMetrics(registry);
+
+	@Test
+	void asyncStageIsRecordedWhenTheFutureCompletes() {
+		CompletableFuture<Boolean> pinCheck = new CompletableFuture<>();
+		assertSame(pinCheck, metrics.stage(Stage.VALIDATE_PIN, pinCheck));
+		assertEquals(0, stageCount("validate_pin"));
+
+		pinCheck.complete(true);
+		assertEquals(1, stageCount("validate_pin"));
+		assertEquals(0, stageCount("validate_users"));
+	}
+
+	@Test
+	void transferIsCountedPerOutcome() {
+		metrics.endTransfer(metrics.startTransfer(), Outcome.COMPLETED);
+		metrics.endTransfer(metrics.startTransfer(), Outcome.COMPLETED);
+		metrics.endTransfer(metrics.startTransfer(), Outcome.INVALID_PIN);
+
+		assertEquals(2, registry.get("transfer").tag("outcome", "completed").timer().count());
+		assertEquals(1, registry.get("transfer").tag("outcome", "invalid_pin").timer().count());
+		assertEquals(0, registry.get("transfer").tag("outcome", "failed").timer().count());
+	}
+
+	private long stageCount(String stage) {
+		return registry.get("transfer.stage").tag("stage", stage).timer().count();
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.digitalbank.transaction.service;
+
+import com.digitalbank.transaction.client.UserServiceClient;
+import com.digitalbank.transaction.client.WalletServiceClient;
+import com.digitalbank.transaction.model.TransactionResponse;
+import com.digitalbank.transaction.model.TransferRequest;
+import com.digitalbank.transaction.model.TransferSagaStatus;
+import com.digitalbank.transaction.model.common.SagaStep;
+import com.digitalbank.transaction.model.common.TransactionStatus;
+import com.digitalbank.transaction.repository.OutboxRepository;
+import com.digitalbank.transaction.repository.TransactionBatchRepository;
+import com.digitalbank.transaction.repository.TransactionRollupRepository;
+import com.digitalbank.transaction.repository.TransferSagaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Steps run on the saga's worker pools and commit on their own, so these tests run outside a test transaction
+// and wait for each saga to reach its final step
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"transaction.saga.max-attempts=2",
+		"transaction.saga.backoff-ms=10",
+		"transaction.saga.max-backoff-ms=20" })
+@Import({ TransferSaga.class, TransferSagaRepository.class, TransactionService.class, TransactionBatchRepository.class,
+		TransactionRollupService.class, TransactionRollupRepository.class, TopReceiversIndex.class,
+		TransferMetrics.class, SimpleMeterRegistry.class, TransferEventOutbox.class, OutboxRepository.class,
+		JacksonAutoConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransferSagaTests {
+
+	@MockitoBean
+	private UserServiceClient userServiceClient;
+
+	@MockitoBean
+	private WalletServiceClient walletServiceClient;
+
+	@Autowired
+	private TransferSaga transferSaga;
+
+	@BeforeEach
+	void validUsers() {
+		when(userServiceClient.findInvalidUsers(any())).thenReturn(Map.of());
+		when(userServiceClient.validatePin(anyLong(), anyString())).thenReturn(true);
+	}
+
+	@Test
+	void acceptedTransferRunsToCompletion() throws Exception {
+		TransactionResponse accepted = transferSaga.submit(request(1L, 2L));
+		assertThat(accepted.getStatus()).isEqualTo(TransactionStatus.PENDING);
+
+		TransferSagaStatus status = awaitFinished(accepted.getTransactionRef());
+		assertThat(status.getStep()).isEqualTo(SagaStep.DONE);
+		assertThat(status.getTransaction().getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+		assertThat(status.getTransaction().getCompletedAt()).isNotNull();
+		verify(walletServiceClient).debit(1L, new BigDecimal("25.00"), accepted.getTransactionRef() + "-debit");
+		verify(walletServiceClient).credit(2L, new BigDecimal("25.00"), accepted.getTransactionRef() + "-credit");
+		verify(walletServiceClient, never()).reverse(anyString());
+	}
+
+	@Test
+	void invalidPinFailsBeforeAnyWalletCall() throws Exception {
+		when(userServiceClient.validatePin(anyLong(), anyString())).thenReturn(false);
+
+		TransferSagaStatus status = awaitFinished(transferSaga.submit(request(3L, 4L)).getTransactionRef());
+		assertThat(status.getStep()).isEqualTo(SagaStep.FAILED);
+		assertThat(status.getLastError()).isEqualTo("Invalid PIN");
+		assertThat(status.getTransaction().getStatus()).isEqualTo(TransactionStatus.FAILED);
+		verify(walletServiceClient, never()).debit(anyLong(), any(), anyString());
+	}
+
+	@Test
+	void rejectedCreditIsCompensated() throws Exception {
+		doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR, "Receiver wallet is not active"))
+				.when(walletServiceClient).credit(anyLong(), any(), anyString());
+
+		String ref = transferSaga.submit(request(5L, 6L)).getTransactionRef();
+		TransferSagaStatus status = awaitFinished(ref);
+		assertThat(status.getStep()).isEqualTo(SagaStep.FAILED);
+		assertThat(status.getLastError()).startsWith("CREDIT failed");
+		assertThat(status.getTransaction().getStatus()).isEqualTo(TransactionStatus.FAILED);
+		verify(walletServiceClient, times(1)).credit(anyLong(), any(), anyString());
+		verify(walletServiceClient).reverse(ref + "-credit");
+		verify(walletServiceClient).reverse(ref + "-debit");
+	}
+
+	@Test
+	void unreachableWalletServiceIsRetriedWithBackoff() throws Exception {
+		doThrow(new ResourceAccessException("Connection refused")).doNothing()
+				.when(walletServiceClient).debit(anyLong(), any(), anyString());
+
+		TransferSagaStatus status = awaitFinished(transferSaga.submit(request(7L, 8L)).getTransactionRef());
+		assertThat(status.getStep()).isEqualTo(SagaStep.DONE);
+		verify(walletServiceClient, times(2)).debit(anyLong(), any(), anyString());
+	}
+
+	@Test
+	void debitGivesUpAfterMaxAttemptsAndIsReversed() throws Exception {
+		doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+				.when(walletServiceClient).debit(anyLong(), any(), anyString());
+		doNothing().when(walletServiceClient).reverse(anyString());
+
+		String ref = transferSaga.submit(request(9L, 10L)).getTransactionRef();
+		TransferSagaStatus status = awaitFinished(ref);
+		assertThat(status.getStep()).isEqualTo(SagaStep.FAILED);
+		assertThat(status.getTransaction().getStatus()).isEqualTo(TransactionStatus.FAILED);
+		verify(walletServiceClient, times(2)).debit(anyLong(), any(), anyString());
+		verify(walletServiceClient, never()).credit(anyLong(), any(), anyString());
+		verify(walletServiceClient).reverse(ref + "-debit");
+	}
+
+	// Retries are due after their backoff, so the poller's work is done here as well
+	private TransferSagaStatus awaitFinished(String transactionRef) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			TransferSagaStatus status = transferSaga.getStatus(transactionRef);
+			if (status.getStep() == SagaStep.DONE || status.getStep() == SagaStep.FAILED) {
+				return status;
+			}
+			transferSaga.resumeDue(100);
+			Thread.sleep(20);
+		}
+		throw new AssertionError("Transfer " + transactionRef + " did not finish");
+	}
+
+	private static TransferRequest request(Long sender, Long receiver) {
+		TransferRequest request = new TransferRequest();
+		request.setSenderUserId(sender);
+		request.setReceiverUserId(receiver);
+		request.setAmount(new BigDecimal("25.00"));
+		request.setPin("123456");
+		return request;
+	}
+
+}
@@ -2,6 +2,7 @@ package com.digitalbank.user.controller;
 
 import com.digitalbank.user.model.UserRegistrationDto;
 import com.digitalbank.user.model.UserResponse;
+import com.digitalbank.user.model.UserStatusResponse;
 import com.digitalbank.user.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -55,6 +56,13 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
     
+    // Batch existence + status lookup; the body is a JSON array of user ids
+    @PostMapping("/status")
+    public ResponseEntity<List<UserStatusResponse>> getUserStatuses(@RequestBody List<Long> ids) {
+        List<UserStatusResponse> statuses = userService.getUserStatuses(ids);
+        return ResponseEntity.ok(statuses);
+    }
+    
     @PostMapping("/validate-pin")
     public ResponseEntity<Map<String, Boolean>> validatePin(@RequestBody Map<String, Object> request) {
         Long userId = Long.valueOf(request.get("userId").toString());
@@ -0,0 +1,15 @@
+package com.digitalbank.user.model;
+
+import com.digitalbank.user.model.common.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatusResponse {
+    private Long id;
+    private boolean exists;
+    private UserStatus status;
+}
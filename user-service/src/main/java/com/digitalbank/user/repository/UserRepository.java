@@ -2,11 +2,15 @@ package com.digitalbank.user.repository;
 
 import com.digitalbank.user.entity.User;
 import com.digitalbank.user.model.common.UserStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +21,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhoneNumber(String phoneNumber);
     List<User> findByStatus(UserStatus status);
     
+    @Query("SELECT u.id, u.status FROM User u WHERE u.id IN :ids")
+    List<Object[]> findStatusesByIds(@Param("ids") Collection<Long> ids);
+    
+    // PIN checks only need the stored hash, not the whole entity
+    @Query("SELECT u.pin FROM User u WHERE u.id = :id")
+    Optional<String> findPinById(@Param("id") Long id);
+    
+    // Conditional on the old value so a concurrent rehash of the same PIN cannot overwrite a newer one
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET pin = :newPin, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE id = :id AND pin = :oldPin", nativeQuery = true)
+    int replacePin(@Param("id") Long id, @Param("oldPin") String oldPin, @Param("newPin") String newPin);
+    
+    // {id, pin} rows whose PIN predates hashing (BCrypt hashes start with "$2")
+    @Query("SELECT u.id, u.pin FROM User u WHERE u.pin NOT LIKE '$2%' ORDER BY u.id")
+    List<Object[]> findPlaintextPins(Limit limit);
+    
     @Query(value = "SELECT * FROM users WHERE status = :status AND created_at >= DATEADD(DAY, -:days, GETDATE())", nativeQuery = true)
     List<User> findRecentUsersByStatus(@Param("status") String status, @Param("days") int days);
     
@@ -0,0 +1,27 @@
+package com.digitalbank.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PinRehashJob {
+    
+    private final UserService userService;
+    
+    @Value("${user.pin.rehash.batch-size:100}")
+    private int batchSize;
+    
+    // Small batches: every PIN costs a full slow hash, and this should not compete with live PIN checks
+    @Scheduled(fixedDelayString = "${user.pin.rehash.interval-ms:60000}")
+    public void rehash() {
+        int hashed = userService.hashPlaintextPins(batchSize);
+        if (hashed > 0) {
+            log.info("Hashed {} plaintext PINs", hashed);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.digitalbank.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+// PINs are stored as BCrypt hashes with a configurable cost. A successful check is remembered for a short
+// window as an HMAC under a per-process random key, so repeat transfers skip the slow hash without the
+// plaintext PIN ever being kept in memory. The HMAC covers the stored hash, so a changed PIN never matches.
+@Component
+public class PinVerifier {
+    
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    
+    private final BCryptPasswordEncoder encoder;
+    private final Cache<Long, byte[]> verified;
+    private final SecretKeySpec cacheKey;
+    
+    public PinVerifier(@Value("${user.pin.hash-cost:10}") int hashCost,
+                       @Value("${user.pin.verification-cache.ttl-ms:300000}") long cacheTtlMillis,
+                       @Value("${user.pin.verification-cache.max-size:100000}") long cacheMaxSize) {
+        this.encoder = new BCryptPasswordEncoder(hashCost);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMillis))
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.cacheKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+    
+    public String hash(String pin) {
+        return encoder.encode(pin);
+    }
+    
+    // Only successful checks are cached; a wrong PIN always pays the full hash
+    public boolean matches(Long userId, String pin, String storedPin) {
+        byte[] fingerprint = fingerprint(userId, pin, storedPin);
+        byte[] cached = verified.getIfPresent(userId);
+        if (cached != null && MessageDigest.isEqual(cached, fingerprint)) {
+            return true;
+        }
+        
+        boolean matches = matchesStored(pin, storedPin);
+        if (matches) {
+            verified.put(userId, fingerprint);
+        }
+        return matches;
+    }
+    
+    // The uncached check: a BCrypt comparison, or a constant-time compare for a PIN stored before hashing
+    public boolean matchesStored(String pin, String storedPin) {
+        if (isHashed(storedPin)) {
+            return encoder.matches(pin, storedPin);
+        }
+        return MessageDigest.isEqual(pin.getBytes(StandardCharsets.UTF_8), storedPin.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Plaintext PINs and hashes made with a lower cost are rehashed after the next successful check
+    public boolean needsRehash(String storedPin) {
+        return !isHashed(storedPin) || encoder.upgradeEncoding(storedPin);
+    }
+    
+    public static boolean isHashed(String storedPin) {
+        return storedPin != null && storedPin.startsWith("$2");
+    }
+    
+    private byte[] fingerprint(Long userId, String pin, String storedPin) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(cacheKey);
+            mac.update((userId + "\u0000" + pin + "\u0000" + storedPin).getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,21 +2,26 @@ package com.digitalbank.user.service;
 
 import com.digitalbank.user.model.UserRegistrationDto;
 import com.digitalbank.user.model.UserResponse;
+import com.digitalbank.user.model.UserStatusResponse;
 import com.digitalbank.user.entity.User;
 import com.digitalbank.user.model.common.UserStatus;
 import com.digitalbank.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     
+    private static final int MAX_STATUS_LOOKUP_IDS = 1000;
+    
     private final UserRepository userRepository;
+    private final PinVerifier pinVerifier;
     
     @Transactional
     public UserResponse registerUser(UserRegistrationDto dto) {
@@ -31,7 +36,7 @@ public class UserService {
         user.setEmail(dto.getEmail());
         user.setFullName(dto.getFullName());
         user.setPhoneNumber(dto.getPhoneNumber());
-        user.setPin(dto.getPin());
+        user.setPin(pinVerifier.hash(dto.getPin()));
         
         User savedUser = userRepository.save(user);
         return mapToResponseDto(savedUser);
@@ -75,13 +80,54 @@ public class UserService {
                 .collect(Collectors.toList());
     }
     
+    // Existence and status only, for callers that validate users and need nothing else; one row per requested id
+    public List<UserStatusResponse> getUserStatuses(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > MAX_STATUS_LOOKUP_IDS) {
+            throw new RuntimeException("At most " + MAX_STATUS_LOOKUP_IDS + " ids per lookup");
+        }
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, UserStatus> statuses = userRepository.findStatusesByIds(distinctIds)
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (UserStatus) row[1]));
+        
+        return distinctIds.stream()
+                .map(id -> new UserStatusResponse(id, statuses.containsKey(id), statuses.get(id)))
+                .collect(Collectors.toList());
+    }
+    
+    // Legacy plaintext PINs and hashes below the configured cost are upgraded after a successful check.
+    // Not transactional: the hash is read and the slow BCrypt check runs with no connection held; only a
+    // rehash after a match writes, in replacePin's own transaction.
     public boolean validatePin(Long userId, String pin) {
-        User user = userRepository.findById(userId)
+        String storedPin = userRepository.findPinById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getPin().equals(pin);
+        if (!pinVerifier.matches(userId, pin, storedPin)) {
+            return false;
+        }
+        if (pinVerifier.needsRehash(storedPin)) {
+            userRepository.replacePin(userId, storedPin, pinVerifier.hash(pin));
+        }
+        return true;
+    }
+    
+    // Hashes PINs stored before hashing existed, so users who never transfer do not keep a plaintext PIN.
+    // Each row commits on its own: a batch of slow hashes must not hold row locks that PIN checks wait on.
+    public int hashPlaintextPins(int batchSize) {
+        int hashed = 0;
+        for (Object[] row : userRepository.findPlaintextPins(Limit.of(batchSize))) {
+            Long id = (Long) row[0];
+            String plaintext = (String) row[1];
+            hashed += userRepository.replacePin(id, plaintext, pinVerifier.hash(plaintext));
+        }
+        return hashed;
     }
     
-    private UserResponse mapToResponseDto(User user) {
+    // Package-private for the mapping benchmark in benchmarks/
+    UserResponse mapToResponseDto(User user) {
         UserResponse dto = new UserResponse();
         dto.setId(user.getId());
         dto.setEmail(user.getEmail());
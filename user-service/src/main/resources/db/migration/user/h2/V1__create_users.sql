@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS users (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email        VARCHAR(255) NOT NULL,
+    full_name    VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255) NOT NULL,
+    pin          VARCHAR(255) NOT NULL,
+    status       VARCHAR(255) NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    updated_at   TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_phone_number UNIQUE (phone_number)
+);
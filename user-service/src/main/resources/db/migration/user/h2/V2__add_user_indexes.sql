@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_users_status_created ON users (status, created_at);
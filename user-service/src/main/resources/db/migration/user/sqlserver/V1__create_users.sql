@@ -0,0 +1,16 @@
+-- Guarded so the script is a no-op on databases created before migrations existed
+IF OBJECT_ID('dbo.users', 'U') IS NULL
+BEGIN
+    CREATE TABLE users (
+        id           BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        email        VARCHAR(255) NOT NULL,
+        full_name    VARCHAR(255) NOT NULL,
+        phone_number VARCHAR(255) NOT NULL,
+        pin          VARCHAR(255) NOT NULL,
+        status       VARCHAR(255) NOT NULL,
+        created_at   DATETIME2(6) NOT NULL,
+        updated_at   DATETIME2(6) NOT NULL,
+        CONSTRAINT uk_users_email UNIQUE (email),
+        CONSTRAINT uk_users_phone_number UNIQUE (phone_number)
+    );
+END;
@@ -0,0 +1,3 @@
+-- findByStatus / findRecentUsersByStatus: status equality plus created_at range
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_users_status_created' AND object_id = OBJECT_ID('dbo.users'))
+    CREATE INDEX idx_users_status_created ON users (status, created_at);
@@ -0,0 +1,66 @@
+package com.digitalbank.user.controller;
+
+import com.digitalbank.user.model.common.UserStatus;
+import com.digitalbank.user.repository.UserRepository;
+import com.digitalbank.user.service.PinVerifier;
+import com.digitalbank.user.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+@Import(UserService.class)
+class UserControllerStatusTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private UserRepository userRepository;
+
+	@MockitoBean
+	private PinVerifier pinVerifier;
+
+	@Test
+	void missingIdsComeBackWithExistsFalse() throws Exception {
+		when(userRepository.findStatusesByIds(any())).thenReturn(List.<Object[]>of(
+				new Object[] { 1L, UserStatus.ACTIVE }, new Object[] { 3L, UserStatus.SUSPENDED }));
+
+		mockMvc.perform(post("/api/users/status").contentType(MediaType.APPLICATION_JSON).content("[1, 2, 3, 2]"))
+				.andExpect(status().isOk())
+				.andExpect(content().json("""
+						[{"id":1,"exists":true,"status":"ACTIVE"},
+						 {"id":2,"exists":false,"status":null},
+						 {"id":3,"exists":true,"status":"SUSPENDED"}]
+						""", true));
+	}
+
+	@Test
+	void moreThanAThousandIdsAreRejectedWithoutAQuery() {
+		String ids = LongStream.rangeClosed(1, 1001).mapToObj(Long::toString)
+				.collect(Collectors.joining(",", "[", "]"));
+
+		assertThatThrownBy(() -> mockMvc.perform(post("/api/users/status")
+				.contentType(MediaType.APPLICATION_JSON).content(ids)))
+				.hasRootCauseMessage("At most 1000 ids per lookup");
+		verify(userRepository, never()).findStatusesByIds(any());
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.digitalbank.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinVerifierTests {
+
+	private final PinVerifier verifier = new PinVerifier(4, 60_000, 100);
+
+	@Test
+	void hashedPinMatchesOnlyTheOriginal() {
+		String stored = verifier.hash("123456");
+
+		assertTrue(PinVerifier.isHashed(stored));
+		assertTrue(verifier.matches(1L, "123456", stored));
+		assertFalse(verifier.matches(1L, "654321", stored));
+		// Served from the verification cache on the second call, still exact
+		assertTrue(verifier.matches(1L, "123456", stored));
+		assertFalse(verifier.matches(2L, "123456", verifier.hash("000000")));
+	}
+
+	@Test
+	void cachedVerificationDoesNotSurviveAPinChange() {
+		String oldStored = verifier.hash("123456");
+		assertTrue(verifier.matches(1L, "123456", oldStored));
+
+		String newStored = verifier.hash("999999");
+		assertFalse(verifier.matches(1L, "123456", newStored));
+		assertTrue(verifier.matches(1L, "999999", newStored));
+	}
+
+	@Test
+	void plaintextAndCheaperHashesNeedRehash() {
+		assertTrue(verifier.matches(1L, "123456", "123456"));
+		assertTrue(verifier.needsRehash("123456"));
+		assertTrue(new PinVerifier(5, 60_000, 100).needsRehash(verifier.hash("123456")));
+		assertFalse(verifier.needsRehash(verifier.hash("123456")));
+	}
+
+}
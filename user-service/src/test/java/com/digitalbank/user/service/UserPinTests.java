@@ -0,0 +1,88 @@
+package com.digitalbank.user.service;
+
+import com.digitalbank.user.entity.User;
+import com.digitalbank.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"user.pin.hash-cost=4"
+})
+@Import({ UserService.class, PinVerifier.class })
+// Real commits, so a transaction open during the hash would show up instead of being the test's own
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserPinTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@MockitoSpyBean
+	private PinVerifier pinVerifier;
+
+	private final List<Boolean> transactionActiveWhileHashing = new ArrayList<>();
+
+	@AfterEach
+	void deleteUsers() {
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void plaintextPinIsCheckedOutsideATransactionAndRehashedAfterAMatch() {
+		Long userId = createUser("123456");
+		recordTransactionWhileHashing();
+
+		assertThat(userService.validatePin(userId, "123456")).isTrue();
+
+		assertThat(transactionActiveWhileHashing).containsExactly(false);
+		String stored = userRepository.findPinById(userId).orElseThrow();
+		assertThat(PinVerifier.isHashed(stored)).isTrue();
+		assertThat(userService.validatePin(userId, "123456")).isTrue();
+	}
+
+	@Test
+	void wrongPinIsNotRehashed() {
+		Long userId = createUser("123456");
+		recordTransactionWhileHashing();
+
+		assertThat(userService.validatePin(userId, "654321")).isFalse();
+
+		assertThat(transactionActiveWhileHashing).containsExactly(false);
+		assertThat(userRepository.findPinById(userId)).contains("123456");
+	}
+
+	private void recordTransactionWhileHashing() {
+		doAnswer(invocation -> {
+			transactionActiveWhileHashing.add(TransactionSynchronizationManager.isActualTransactionActive());
+			return invocation.callRealMethod();
+		}).when(pinVerifier).matches(any(), any(), any());
+	}
+
+	// Stored as it was before hashing existed, so the check also has to rehash
+	private Long createUser(String plaintextPin) {
+		User user = new User();
+		user.setEmail("pin-" + plaintextPin + "@example.com");
+		user.setFullName("Pin User");
+		user.setPhoneNumber("0800" + plaintextPin);
+		user.setPin(plaintextPin);
+		return userRepository.save(user).getId();
+	}
+
+}
@@ -1,16 +1,28 @@
 package com.digitalbank.account.controller;
 
+import com.digitalbank.account.model.LedgerStatementLine;
 import com.digitalbank.account.model.WalletTopup;
 import com.digitalbank.account.model.WalletCreate;
 import com.digitalbank.account.model.WalletResponse;
+import com.digitalbank.account.model.WalletTransfer;
+import com.digitalbank.account.model.WalletTransferResult;
+import com.digitalbank.account.model.common.ReadConsistency;
 import com.digitalbank.account.service.WalletService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +32,7 @@ import java.util.Map;
 public class WalletController {
     
     private final WalletService walletService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping("/create")
     public ResponseEntity<WalletResponse> createWallet(@RequestBody WalletCreate dto) {
@@ -34,17 +47,46 @@ public class WalletController {
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<WalletResponse> getWalletByUserId(@PathVariable Long userId) {
-        WalletResponse wallet = walletService.getWalletByUserId(userId);
+    public ResponseEntity<WalletResponse> getWalletByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) ReadConsistency consistency) {
+        WalletResponse wallet = walletService.getWalletByUserId(userId, consistency);
         return ResponseEntity.ok(wallet);
     }
     
     @GetMapping("/balance/{userId}")
-    public ResponseEntity<Map<String, BigDecimal>> getBalance(@PathVariable Long userId) {
-        BigDecimal balance = walletService.getBalance(userId);
+    public ResponseEntity<Map<String, BigDecimal>> getBalance(
+            @PathVariable Long userId,
+            @RequestParam(required = false) ReadConsistency consistency) {
+        BigDecimal balance = walletService.getBalance(userId, consistency);
         return ResponseEntity.ok(Map.of("balance", balance));
     }
     
+    // Balance made up of every movement before the given instant, e.g. ?asOf=2026-10-01T00:00:00
+    @GetMapping("/balance/{userId}/at")
+    public ResponseEntity<Map<String, Object>> getBalanceAt(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        BigDecimal balance = walletService.getBalanceAt(userId, asOf);
+        return ResponseEntity.ok(Map.of("balance", balance, "asOf", asOf));
+    }
+    
+    // Movements of [from, to) as NDJSON, oldest first, each with the balance after it; the balance at from is
+    // sent in the X-Opening-Balance header
+    @GetMapping(value = "/statement/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getStatement(
+            @PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        BigDecimal openingBalance = walletService.getStatementOpeningBalance(userId, from, to);
+        StreamingResponseBody body = out -> walletService.streamStatement(userId, from, to, openingBalance,
+                line -> writeNdjsonLine(out, line));
+        return ResponseEntity.ok()
+                .header("X-Opening-Balance", openingBalance.toPlainString())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     @GetMapping("/wealthy")
     public ResponseEntity<List<WalletResponse>> getWealthyWallets(
             @RequestParam(defaultValue = "1000") BigDecimal minBalance) {
@@ -58,11 +100,29 @@ public class WalletController {
         return ResponseEntity.ok(stats);
     }
     
+    @GetMapping("/locks/statistics")
+    public ResponseEntity<Map<String, Object>> getLockStatistics() {
+        Map<String, Object> stats = walletService.getLockStatistics();
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        Map<String, Object> stats = walletService.getCacheStatistics();
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/ledger/statistics")
+    public ResponseEntity<Map<String, Object>> getLedgerStatistics() {
+        Map<String, Object> stats = walletService.getLedgerStatistics();
+        return ResponseEntity.ok(stats);
+    }
+    
     @PostMapping("/deduct")
     public ResponseEntity<Void> deductBalance(@RequestBody Map<String, Object> request) {
         Long userId = Long.valueOf(request.get("userId").toString());
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
-        walletService.deductBalance(userId, amount);
+        walletService.deductBalance(userId, amount, operationId(request));
         return ResponseEntity.ok().build();
     }
     
@@ -70,7 +130,41 @@ public class WalletController {
     public ResponseEntity<Void> addBalance(@RequestBody Map<String, Object> request) {
         Long userId = Long.valueOf(request.get("userId").toString());
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
-        walletService.addBalance(userId, amount);
+        walletService.addBalance(userId, amount, operationId(request));
         return ResponseEntity.ok().build();
     }
+    
+    // Compensation for /deduct and /add calls made with an operationId; safe to repeat
+    @PostMapping("/operations/{operationId}/reverse")
+    public ResponseEntity<Void> reverseOperation(@PathVariable String operationId) {
+        walletService.reverseOperation(operationId);
+        return ResponseEntity.ok().build();
+    }
+    
+    @PostMapping("/transfer")
+    public ResponseEntity<Void> transfer(@Valid @RequestBody WalletTransfer dto) {
+        walletService.transfer(dto);
+        return ResponseEntity.ok().build();
+    }
+    
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<List<WalletTransferResult>> transferBatch(@RequestBody List<WalletTransfer> transfers) {
+        List<WalletTransferResult> results = walletService.transferBatch(transfers);
+        return ResponseEntity.ok(results);
+    }
+    
+    private void writeNdjsonLine(OutputStream out, LedgerStatementLine line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Optional on /deduct and /add: retries carrying the same id are applied once
+    private static String operationId(Map<String, Object> request) {
+        Object operationId = request.get("operationId");
+        return operationId != null ? operationId.toString() : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.digitalbank.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Balance of an account made up of all its entries created before cutAt
+@Entity
+@Table(name = "ledger_snapshots",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "cut_at"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "cut_at", nullable = false)
+    private LocalDateTime cutAt;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
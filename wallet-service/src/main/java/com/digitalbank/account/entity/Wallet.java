@@ -23,6 +23,7 @@ public class Wallet {
     @Column(name = "user_id", nullable = false, unique = true)
     private Long userId;
     
+    // Ledger balance as of the latest snapshot run; the current balance comes from LedgerService
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal balance;
     
@@ -0,0 +1,37 @@
+package com.digitalbank.account.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import com.digitalbank.account.model.common.WalletOperationType;
+
+@Entity
+@Table(name = "wallet_operations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletOperation {
+    
+    @Id
+    @Column(name = "operation_id", length = 100)
+    private String operationId;
+    
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private WalletOperationType type;
+    
+    @Column(precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "reversed_at")
+    private LocalDateTime reversedAt;
+}
@@ -0,0 +1,20 @@
+package com.digitalbank.account.model;
+
+import com.digitalbank.account.model.common.LedgerEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One ledger entry of a statement, with the account's balance right after it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerStatementLine {
+    private LocalDateTime createdAt;
+    private LedgerEntryType type;
+    private String reference;
+    private BigDecimal amount;
+    private BigDecimal balance;
+}
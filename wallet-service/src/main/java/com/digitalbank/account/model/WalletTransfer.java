@@ -0,0 +1,22 @@
+package com.digitalbank.account.model;
+
+import lombok.Data;
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+
+@Data
+public class WalletTransfer {
+    @NotNull(message = "Sender user ID is required")
+    private Long senderUserId;
+    
+    @NotNull(message = "Receiver user ID is required")
+    private Long receiverUserId;
+    
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+    
+    // Optional; a transfer carrying an id that was already applied is not applied again
+    @Size(max = 100, message = "Operation ID must be at most 100 characters")
+    private String operationId;
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.digitalbank.account.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletTransferResult {
+    private int index;
+    private boolean success;
+    private String error;
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.digitalbank.account.model.common;
+
+public enum LedgerEntryType {
+    OPENING,
+    TOPUP,
+    TRANSFER,
+    DEBIT,
+    CREDIT,
+    REVERSAL
+}
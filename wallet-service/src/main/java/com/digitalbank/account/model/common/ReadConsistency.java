@@ -0,0 +1,5 @@
+package com.digitalbank.account.model.common;
+
+public enum ReadConsistency {
+    STRICT, BOUNDED_STALENESS
+}
@@ -0,0 +1,8 @@
+package com.digitalbank.account.model.common;
+
+public enum WalletOperationType {
+    DEBIT, 
+    CREDIT, 
+    TRANSFER, 
+    VOID
+}
@@ -0,0 +1,70 @@
+package com.digitalbank.account.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.digitalbank.account.entity.LedgerEntry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    
+    // Both sides of a movement in one statement, so a pair is never half written. Stamped with the database's UTC
+    // clock, but never below either account's latest snapshot cut: balances only sum entries from the cut on, so an
+    // entry stamped under it (the clock stepped back) would drop out of every later balance.
+    @Modifying
+    @Query(value = "INSERT INTO ledger_entries (account_id, amount, entry_type, reference, created_at) " +
+                   "SELECT v.account_id, v.amount, :type, :reference, s.stamp " +
+                   "FROM (VALUES (CAST(:fromAccount AS BIGINT), CAST(:debitAmount AS DECIMAL(15,2))), " +
+                                "(CAST(:toAccount AS BIGINT), CAST(:creditAmount AS DECIMAL(15,2)))) v (account_id, amount) " +
+                   "CROSS JOIN (SELECT CASE WHEN k.cut_at > c.utc_now THEN k.cut_at ELSE c.utc_now END AS stamp " +
+                               "FROM ledger_clock c CROSS JOIN (SELECT MAX(cut_at) AS cut_at FROM ledger_snapshots " +
+                                   "WHERE account_id IN (:fromAccount, :toAccount)) k) s", nativeQuery = true)
+    int insertPair(@Param("fromAccount") Long fromAccount, @Param("toAccount") Long toAccount,
+                   @Param("debitAmount") BigDecimal debitAmount, @Param("creditAmount") BigDecimal creditAmount,
+                   @Param("type") String type, @Param("reference") String reference);
+    
+    // The ledger's clock: UTC on the database server, the same for every instance
+    @Query(value = "SELECT utc_now FROM ledger_clock", nativeQuery = true)
+    LocalDateTime utcNow();
+    
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM ledger_entries " +
+                   "WHERE account_id = :accountId AND created_at >= :from", nativeQuery = true)
+    BigDecimal sumSince(@Param("accountId") Long accountId, @Param("from") LocalDateTime from);
+    
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM ledger_entries " +
+                   "WHERE account_id = :accountId AND created_at >= :from AND created_at < :to", nativeQuery = true)
+    BigDecimal sumBetween(@Param("accountId") Long accountId,
+                          @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // One row: {entryCount, amountSum} of the account's entries in [from, to)
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(amount), 0) FROM ledger_entries " +
+                   "WHERE account_id = :accountId AND created_at >= :from AND created_at < :to", nativeQuery = true)
+    List<Object[]> countAndSumBetween(@Param("accountId") Long accountId,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query(value = "SELECT DISTINCT account_id FROM ledger_entries " +
+                   "WHERE created_at >= :from AND created_at < :to", nativeQuery = true)
+    List<Long> findAccountsWithEntriesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Forward-only cursor for streaming; callers must consume it inside a transaction and close it
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM LedgerEntry e " +
+           "WHERE e.accountId = :accountId AND e.createdAt >= :from AND e.createdAt < :to " +
+           "ORDER BY e.createdAt, e.id")
+    Stream<LedgerEntry> streamEntries(@Param("accountId") Long accountId,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,19 @@
+package com.digitalbank.account.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.digitalbank.account.entity.LedgerSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+    
+    Optional<LedgerSnapshot> findTopByAccountIdOrderByCutAtDesc(Long accountId);
+    
+    Optional<LedgerSnapshot> findTopByAccountIdAndCutAtLessThanEqualOrderByCutAtDesc(Long accountId, LocalDateTime cutAt);
+    
+    Optional<LedgerSnapshot> findTopByOrderByCutAtDesc();
+}
@@ -0,0 +1,29 @@
+package com.digitalbank.account.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.digitalbank.account.entity.WalletOperation;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface WalletOperationRepository extends JpaRepository<WalletOperation, String> {
+    
+    // 0 when the id is already recorded; no exception, so the caller's transaction stays usable
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO wallet_operations (operation_id, user_id, type, amount, created_at) " +
+                   "SELECT :operationId, :userId, :type, :amount, CURRENT_TIMESTAMP " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM wallet_operations WHERE operation_id = :operationId)", nativeQuery = true)
+    int insertIfAbsent(@Param("operationId") String operationId, @Param("userId") Long userId,
+                       @Param("type") String type, @Param("amount") BigDecimal amount);
+    
+    // 1 for the one caller that gets to undo the operation
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE wallet_operations SET reversed_at = CURRENT_TIMESTAMP " +
+                   "WHERE operation_id = :operationId AND reversed_at IS NULL AND type <> 'VOID'", nativeQuery = true)
+    int markReversed(@Param("operationId") String operationId);
+}
@@ -1,6 +1,9 @@
 package com.digitalbank.account.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,6 +12,7 @@ import com.digitalbank.account.entity.Wallet;
 import com.digitalbank.account.model.common.WalletStatus;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +30,20 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
     
     @Query(value = "SELECT status, COUNT(*) as count FROM wallets GROUP BY status", nativeQuery = true)
     List<Object[]> countWalletsByStatus();
+    
+    // Row lock held until commit: serializes debits of one wallet across instances, credits never take it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.userId = :userId")
+    Optional<Wallet> findAndLockByUserId(@Param("userId") Long userId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.userId IN :userIds ORDER BY w.userId")
+    List<Wallet> findAndLockByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    List<Wallet> findByUserIdIn(Collection<Long> userIds);
+    
+    // balance is the ledger balance as of the latest snapshot run, kept for the balance-ordered queries above
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE wallets SET balance = :balance WHERE user_id = :userId AND balance <> :balance", nativeQuery = true)
+    int updateSnapshotBalance(@Param("userId") Long userId, @Param("balance") BigDecimal balance);
 }
\ No newline at end of file
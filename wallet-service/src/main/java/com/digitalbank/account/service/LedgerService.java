@@ -0,0 +1,153 @@
+package com.digitalbank.account.service;
+
+import com.digitalbank.account.entity.LedgerEntry;
+import com.digitalbank.account.entity.LedgerSnapshot;
+import com.digitalbank.account.model.LedgerStatementLine;
+import com.digitalbank.account.model.common.LedgerEntryType;
+import com.digitalbank.account.repository.LedgerEntryRepository;
+import com.digitalbank.account.repository.LedgerSnapshotRepository;
+import com.digitalbank.account.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Double-entry ledger: a movement is one INSERT of two entries that sum to zero, so posting never updates a
+// shared row. An account's balance is its latest snapshot plus the entries created since the snapshot's cut.
+// Entry stamps and cuts come from the database's UTC clock (ledger_clock), as do the times callers pass in.
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+    
+    // The bank's own accounts: money entering or leaving through top-ups, and saga debits awaiting their credit
+    public static final long EXTERNAL_ACCOUNT = -1L;
+    public static final long CLEARING_ACCOUNT = -2L;
+    
+    // Before any entry; the cut of an account without snapshots
+    static final LocalDateTime LEDGER_START = LocalDateTime.of(2000, 1, 1, 0, 0);
+    
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerSnapshotRepository ledgerSnapshotRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    
+    // Entries are stamped when inserted but become visible at commit, so the cut trails the clock by more than
+    // the longest write transaction (wallet.ledger.write-timeout-s); an entry committed after its cut was summed
+    // would otherwise be missed
+    @Value("${wallet.ledger.snapshot.lag-ms:60000}")
+    private long snapshotLagMillis;
+    
+    @Value("${wallet.ledger.snapshot.min-entries:50}")
+    private long snapshotMinEntries;
+    
+    private volatile LocalDateTime lastCut;
+    private final AtomicLong snapshotsTaken = new AtomicLong();
+    
+    // Moves amount from one account to the other; a null reference gets a generated one
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void post(LedgerEntryType type, long fromAccount, long toAccount, BigDecimal amount, String reference) {
+        ledgerEntryRepository.insertPair(fromAccount, toAccount, amount.negate(), amount, type.name(),
+                reference != null ? reference : UUID.randomUUID().toString());
+    }
+    
+    // Reads at most the entries since the account's latest snapshot
+    public BigDecimal getBalance(long accountId) {
+        Optional<LedgerSnapshot> snapshot = ledgerSnapshotRepository.findTopByAccountIdOrderByCutAtDesc(accountId);
+        LocalDateTime from = snapshot.map(LedgerSnapshot::getCutAt).orElse(LEDGER_START);
+        BigDecimal base = snapshot.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        return base.add(ledgerEntryRepository.sumSince(accountId, from));
+    }
+    
+    // Sum of the entries created before asOf: the nearest snapshot at or before it plus the entries in between,
+    // so a date far in the past reads no more entries than a recent one
+    public BigDecimal getBalanceAt(long accountId, LocalDateTime asOf) {
+        Optional<LedgerSnapshot> snapshot =
+                ledgerSnapshotRepository.findTopByAccountIdAndCutAtLessThanEqualOrderByCutAtDesc(accountId, asOf);
+        LocalDateTime from = snapshot.map(LedgerSnapshot::getCutAt).orElse(LEDGER_START);
+        BigDecimal base = snapshot.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO);
+        return base.add(ledgerEntryRepository.sumBetween(accountId, from, asOf));
+    }
+    
+    // Streams the entries of [from, to) oldest first with a running balance that starts at openingBalance;
+    // entities are detached as they are written, so memory stays flat however many entries the period has
+    @Transactional(readOnly = true)
+    public void streamStatement(long accountId, LocalDateTime from, LocalDateTime to, BigDecimal openingBalance,
+                                Consumer<LedgerStatementLine> sink) {
+        BigDecimal[] balance = { openingBalance };
+        try (Stream<LedgerEntry> entries = ledgerEntryRepository.streamEntries(accountId, from, to)) {
+            entries.forEach(entry -> {
+                balance[0] = balance[0].add(entry.getAmount());
+                sink.accept(new LedgerStatementLine(entry.getCreatedAt(), entry.getEntryType(), entry.getReference(),
+                        entry.getAmount(), balance[0]));
+                entityManager.detach(entry);
+            });
+        }
+    }
+    
+    // Rolls every account that moved since the previous run forward to a new cut, one account per transaction.
+    // A snapshot row is written once an account has min-entries entries past its last snapshot; the wallet's
+    // balance column is refreshed either way.
+    public int takeSnapshots() {
+        LocalDateTime now = ledgerEntryRepository.utcNow();
+        LocalDateTime cut = now.minusNanos(snapshotLagMillis * 1_000_000);
+        LocalDateTime since = lastCut != null ? lastCut
+                : ledgerSnapshotRepository.findTopByOrderByCutAtDesc().map(LedgerSnapshot::getCutAt).orElse(LEDGER_START);
+        if (!cut.isAfter(since)) {
+            return 0;
+        }
+        
+        int taken = 0;
+        for (Long accountId : ledgerEntryRepository.findAccountsWithEntriesBetween(since, cut)) {
+            taken += transactionTemplate.execute(status -> snapshot(accountId, cut, now));
+        }
+        lastCut = cut;
+        snapshotsTaken.addAndGet(taken);
+        return taken;
+    }
+    
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lastCut", lastCut);
+        stats.put("snapshotsTaken", snapshotsTaken.get());
+        stats.put("externalBalance", getBalance(EXTERNAL_ACCOUNT));
+        stats.put("clearingBalance", getBalance(CLEARING_ACCOUNT));
+        return stats;
+    }
+    
+    private int snapshot(Long accountId, LocalDateTime cut, LocalDateTime now) {
+        Optional<LedgerSnapshot> previous =
+                ledgerSnapshotRepository.findTopByAccountIdAndCutAtLessThanEqualOrderByCutAtDesc(accountId, cut);
+        if (previous.isPresent() && previous.get().getCutAt().equals(cut)) {
+            return 0;
+        }
+        LocalDateTime from = previous.map(LedgerSnapshot::getCutAt).orElse(LEDGER_START);
+        List<Object[]> rows = ledgerEntryRepository.countAndSumBetween(accountId, from, cut);
+        long entries = ((Number) rows.get(0)[0]).longValue();
+        BigDecimal balance = previous.map(LedgerSnapshot::getBalance).orElse(BigDecimal.ZERO)
+                .add((BigDecimal) rows.get(0)[1]);
+        
+        if (accountId > 0) {
+            walletRepository.updateSnapshotBalance(accountId, balance);
+        }
+        if (entries < snapshotMinEntries) {
+            return 0;
+        }
+        ledgerSnapshotRepository.save(new LedgerSnapshot(null, accountId, cut, balance, now));
+        return 1;
+    }
+}
@@ -0,0 +1,28 @@
+package com.digitalbank.account.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.ledger.snapshot.enabled", matchIfMissing = true)
+public class LedgerSnapshotJob {
+    
+    private final LedgerService ledgerService;
+    
+    @Scheduled(fixedDelayString = "${wallet.ledger.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        try {
+            int taken = ledgerService.takeSnapshots();
+            if (taken > 0) {
+                log.debug("Took {} ledger snapshots", taken);
+            }
+        } catch (Exception e) {
+            log.warn("Could not take ledger snapshots: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.digitalbank.account.service;
+
+import com.digitalbank.account.model.WalletResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Read-through cache of wallet state keyed by user id, bounded by size (W-TinyLFU eviction) and TTL.
+// Every code path that changes a balance evicts the wallet once its transaction commits; the TTL bounds
+// staleness for changes made by other instances.
+@Component
+public class WalletCache {
+    
+    private final Cache<Long, WalletResponse> cache;
+    
+    public WalletCache(@Value("${wallet.cache.max-size:100000}") long maxSize,
+                       @Value("${wallet.cache.ttl-ms:5000}") long ttlMillis) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+    }
+    
+    // Concurrent misses for one wallet share a single load, and an eviction racing with a load
+    // waits for it, so a value read before a commit is never left behind in the cache
+    public WalletResponse get(Long userId, Function<Long, WalletResponse> loader) {
+        return cache.get(userId, loader);
+    }
+    
+    // Evicting before commit would let a reader cache the old row again, so eviction waits for the commit
+    public void evictAfterCommit(Long... userIds) {
+        evictAfterCommit(List.of(userIds));
+    }
+    
+    public void evictAfterCommit(Iterable<Long> userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidateAll(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidateAll(userIds);
+            }
+        });
+    }
+    
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("averageLoadMicros", (long) (stats.averageLoadPenalty() / 1_000));
+        return result;
+    }
+}
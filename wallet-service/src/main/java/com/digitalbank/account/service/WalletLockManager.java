@@ -0,0 +1,133 @@
+package com.digitalbank.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// In-process striped locks keyed by wallet user id: one writer per stripe, different stripes run in parallel
+@Component
+public class WalletLockManager {
+    
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+    
+    public WalletLockManager(@Value("${wallet.lock.stripes:64}") int stripeCount,
+                             @Value("${wallet.lock.timeout-ms:5000}") long timeoutMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    // Runs work holding the stripes of these wallets. Callers take them before work opens its transaction, so a
+    // writer queued behind a busy wallet waits here without holding a pooled connection, and the stripes are
+    // released only once work has committed, so the next writer sees its rows.
+    public <T> T callLocked(Supplier<T> work, Long... userIds) {
+        // Acquire in ascending stripe order so two-wallet operations cannot deadlock
+        int[] indexes = Arrays.stream(userIds)
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        
+        List<Stripe> acquired = new ArrayList<>(indexes.length);
+        try {
+            for (int index : indexes) {
+                Stripe stripe = stripes[index];
+                if (!stripe.acquire(timeoutMillis)) {
+                    throw new RuntimeException("Wallet is busy, please retry");
+                }
+                acquired.add(stripe);
+            }
+            return work.get();
+        } finally {
+            releaseAll(acquired);
+        }
+    }
+    
+    public Map<String, Object> getStatistics() {
+        List<Map<String, Object>> active = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            long acquisitions = stripe.acquisitions.sum();
+            if (acquisitions == 0) {
+                continue;
+            }
+            
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("stripe", i);
+            row.put("acquisitions", acquisitions);
+            row.put("contended", stripe.contended.sum());
+            row.put("timeouts", stripe.timeouts.sum());
+            row.put("queueDepth", stripe.lock.getQueueLength());
+            row.put("maxQueueDepth", stripe.maxQueueDepth.get());
+            row.put("avgWaitMicros", stripe.waitNanos.sum() / acquisitions / 1_000);
+            row.put("maxWaitMicros", stripe.maxWaitNanos.get() / 1_000);
+            active.add(row);
+        }
+        
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stripeCount", stripes.length);
+        stats.put("stripes", active);
+        return stats;
+    }
+    
+    private int stripeIndex(Long userId) {
+        int h = Long.hashCode(userId);
+        return (h ^ (h >>> 16)) & mask;
+    }
+    
+    private static void releaseAll(List<Stripe> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).lock.unlock();
+        }
+    }
+    
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong maxQueueDepth = new AtomicLong();
+        
+        boolean acquire(long timeoutMillis) {
+            if (lock.tryLock()) {
+                acquisitions.increment();
+                return true;
+            }
+            
+            contended.increment();
+            maxQueueDepth.accumulateAndGet(lock.getQueueLength() + 1, Math::max);
+            long start = System.nanoTime();
+            boolean locked;
+            try {
+                locked = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                locked = false;
+            }
+            long waited = System.nanoTime() - start;
+            
+            if (!locked) {
+                timeouts.increment();
+                return false;
+            }
+            acquisitions.increment();
+            waitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return true;
+        }
+    }
+}
@@ -1,25 +1,53 @@
 package com.digitalbank.account.service;
 
+import com.digitalbank.account.model.LedgerStatementLine;
 import com.digitalbank.account.model.WalletTopup;
 import com.digitalbank.account.model.WalletCreate;
 import com.digitalbank.account.model.WalletResponse;
+import com.digitalbank.account.model.WalletTransfer;
+import com.digitalbank.account.model.WalletTransferResult;
 import com.digitalbank.account.entity.Wallet;
+import com.digitalbank.account.entity.WalletOperation;
+import com.digitalbank.account.model.common.LedgerEntryType;
+import com.digitalbank.account.model.common.ReadConsistency;
+import com.digitalbank.account.model.common.WalletOperationType;
 import com.digitalbank.account.model.common.WalletStatus;
+import com.digitalbank.account.repository.WalletOperationRepository;
 import com.digitalbank.account.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+// Balances live in the ledger: credits are pure inserts, debits lock the wallet row and check the ledger balance
 @Service
 @RequiredArgsConstructor
 public class WalletService {
     
     private final WalletRepository walletRepository;
+    private final WalletLockManager walletLockManager;
+    private final LedgerService ledgerService;
+    private final WalletCache walletCache;
+    private final WalletOperationRepository walletOperationRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${wallet.cache.consistency.wallet:BOUNDED_STALENESS}")
+    private ReadConsistency walletConsistency;
+    
+    @Value("${wallet.cache.consistency.balance:BOUNDED_STALENESS}")
+    private ReadConsistency balanceConsistency;
+    
+    // Every transaction that posts to the ledger is bounded by this, which must stay below the snapshot lag
+    @Value("${wallet.ledger.write-timeout-s:30}")
+    private int writeTimeoutSeconds;
     
     @Transactional
     public WalletResponse createWallet(WalletCreate dto) {
@@ -32,71 +60,203 @@ public class WalletService {
         wallet.setCurrency(dto.getCurrency() != null ? dto.getCurrency() : "IDR");
         
         Wallet savedWallet = walletRepository.save(wallet);
+        walletCache.evictAfterCommit(dto.getUserId());
         return mapToResponseDto(savedWallet);
     }
     
-    @Transactional
+    @Transactional(timeoutString = "${wallet.ledger.write-timeout-s:30}")
     public WalletResponse topUp(WalletTopup dto) {
-        Wallet wallet = walletRepository.findByUserId(dto.getUserId())
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-        
-        if (wallet.getStatus() != WalletStatus.ACTIVE) {
-            throw new RuntimeException("Wallet is not active");
+        walletCache.evictAfterCommit(dto.getUserId());
+        Wallet wallet = requireActive(dto.getUserId(), "Wallet");
+        ledgerService.post(LedgerEntryType.TOPUP, LedgerService.EXTERNAL_ACCOUNT, dto.getUserId(), dto.getAmount(), null);
+        return mapToResponseDto(wallet);
+    }
+    
+    // With an operationId the debit is applied at most once: a repeat of an applied or reversed id is a no-op.
+    // Saga debits park the amount in the clearing account until the matching credit takes it out.
+    public void deductBalance(Long userId, BigDecimal amount, String operationId) {
+        lockedTransaction(new Long[] { userId }, status -> {
+            walletCache.evictAfterCommit(userId);
+            if (recordOperation(operationId, userId, WalletOperationType.DEBIT, amount)) {
+                debit(userId, "Wallet", amount, LedgerEntryType.DEBIT, LedgerService.CLEARING_ACCOUNT, operationId);
+            }
+            return null;
+        });
+    }
+    
+    @Transactional(timeoutString = "${wallet.ledger.write-timeout-s:30}")
+    public void addBalance(Long userId, BigDecimal amount, String operationId) {
+        walletCache.evictAfterCommit(userId);
+        if (!recordOperation(operationId, userId, WalletOperationType.CREDIT, amount)) {
+            return;
         }
-        
-        wallet.setBalance(wallet.getBalance().add(dto.getAmount()));
-        Wallet updatedWallet = walletRepository.save(wallet);
-        
-        return mapToResponseDto(updatedWallet);
+        requireActive(userId, "Wallet");
+        ledgerService.post(LedgerEntryType.CREDIT, LedgerService.CLEARING_ACCOUNT, userId, amount, operationId);
     }
     
-    @Transactional
-    public void deductBalance(Long userId, BigDecimal amount) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-        
-        if (wallet.getStatus() != WalletStatus.ACTIVE) {
-            throw new RuntimeException("Wallet is not active");
+    // Undoes a debit or credit made with this operationId, once. An id that has not arrived yet is voided
+    // instead, so a delayed request carrying it is ignored: after a reversal the operation never takes effect.
+    // No stripe lock: markReversed admits one reversal, and giving a credit back debits under the wallet row lock.
+    @Transactional(timeoutString = "${wallet.ledger.write-timeout-s:30}")
+    public void reverseOperation(String operationId) {
+        if (walletOperationRepository.insertIfAbsent(operationId, null, WalletOperationType.VOID.name(), null) == 1) {
+            return;
         }
-        
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        WalletOperation operation = walletOperationRepository.findById(operationId)
+                .orElseThrow(() -> new RuntimeException("Operation not found"));
+        if (operation.getType() == WalletOperationType.VOID) {
+            return;
+        }
+        if (operation.getType() == WalletOperationType.TRANSFER) {
+            throw new RuntimeException("Transfers cannot be reversed");
         }
         
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        walletRepository.save(wallet);
+        Long userId = operation.getUserId();
+        walletCache.evictAfterCommit(userId);
+        if (walletOperationRepository.markReversed(operationId) == 0) {
+            return;
+        }
+        if (operation.getType() == WalletOperationType.DEBIT) {
+            // Giving a debit back is allowed whatever the wallet's status
+            ledgerService.post(LedgerEntryType.REVERSAL, LedgerService.CLEARING_ACCOUNT, userId,
+                    operation.getAmount(), operationId);
+        } else {
+            debit(userId, "Wallet", operation.getAmount(), LedgerEntryType.REVERSAL,
+                    LedgerService.CLEARING_ACCOUNT, operationId);
+        }
     }
     
-    @Transactional
-    public void addBalance(Long userId, BigDecimal amount) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+    // One entry pair moves the amount between both wallets, so a failure never leaves money in flight.
+    // With an operationId the transfer is applied at most once; a repeat is a no-op.
+    public void transfer(WalletTransfer dto) {
+        Long senderUserId = dto.getSenderUserId();
+        Long receiverUserId = dto.getReceiverUserId();
+        if (senderUserId.equals(receiverUserId)) {
+            throw new RuntimeException("Cannot transfer to the same wallet");
+        }
+        // Only the sender is serialized, the receiver's side is an insert
+        lockedTransaction(new Long[] { senderUserId }, status -> {
+            walletCache.evictAfterCommit(senderUserId, receiverUserId);
+            if (recordOperation(dto.getOperationId(), senderUserId, WalletOperationType.TRANSFER, dto.getAmount())) {
+                requireActive(receiverUserId, "Receiver wallet");
+                debit(senderUserId, "Sender wallet", dto.getAmount(), LedgerEntryType.TRANSFER, receiverUserId,
+                        dto.getOperationId());
+            }
+            return null;
+        });
+    }
+    
+    // Applies a whole batch in one DB transaction; a rejected item is reported and skipped, not rolled back with the rest.
+    // An item whose operationId was already applied reports success without moving money again, so a batch whose
+    // outcome the caller never saw can be sent again as is. Sender rows are locked in ascending order and every balance is read before the first insert, so batches
+    // touching the same wallets wait for each other instead of deadlocking.
+    public List<WalletTransferResult> transferBatch(List<WalletTransfer> transfers) {
+        Set<Long> senderUserIds = new TreeSet<>();
+        Set<Long> touchedUserIds = new HashSet<>();
+        for (WalletTransfer transfer : transfers) {
+            if (transfer.getSenderUserId() != null) {
+                senderUserIds.add(transfer.getSenderUserId());
+                touchedUserIds.add(transfer.getSenderUserId());
+            }
+            if (transfer.getReceiverUserId() != null) {
+                touchedUserIds.add(transfer.getReceiverUserId());
+            }
+        }
+        return lockedTransaction(senderUserIds.toArray(Long[]::new),
+                status -> applyBatch(transfers, senderUserIds, touchedUserIds));
+    }
+    
+    private List<WalletTransferResult> applyBatch(List<WalletTransfer> transfers, Set<Long> senderUserIds,
+                                                  Set<Long> touchedUserIds) {
+        walletCache.evictAfterCommit(touchedUserIds);
+        walletRepository.findAndLockByUserIdIn(senderUserIds);
+        Map<Long, WalletStatus> statuses = walletRepository.findByUserIdIn(touchedUserIds).stream()
+                .collect(Collectors.toMap(Wallet::getUserId, Wallet::getStatus));
+        // Running balance of every sender, moved along as items are accepted
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Long senderUserId : senderUserIds) {
+            if (statuses.containsKey(senderUserId)) {
+                balances.put(senderUserId, ledgerService.getBalance(senderUserId));
+            }
+        }
+        
+        // Read under the sender locks: a concurrent batch carrying the same ids has the same senders
+        Set<String> appliedOperationIds = walletOperationRepository.findAllById(transfers.stream()
+                        .map(WalletTransfer::getOperationId).filter(Objects::nonNull).toList()).stream()
+                .map(WalletOperation::getOperationId)
+                .collect(Collectors.toCollection(HashSet::new));
         
-        wallet.setBalance(wallet.getBalance().add(amount));
-        walletRepository.save(wallet);
+        List<WalletTransferResult> results = new ArrayList<>(transfers.size());
+        List<WalletTransfer> accepted = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            WalletTransfer transfer = transfers.get(i);
+            if (transfer.getOperationId() != null && appliedOperationIds.contains(transfer.getOperationId())) {
+                results.add(new WalletTransferResult(i, true, null));
+                continue;
+            }
+            String error = checkBatchItem(transfer, statuses, balances);
+            if (error == null) {
+                if (transfer.getOperationId() != null) {
+                    appliedOperationIds.add(transfer.getOperationId());
+                }
+                // A VOID or apply of the same id by another path can commit after the read above; the insert is
+                // the final say, and losing it means the item is already settled
+                if (!recordOperation(transfer.getOperationId(), transfer.getSenderUserId(),
+                        WalletOperationType.TRANSFER, transfer.getAmount())) {
+                    results.add(new WalletTransferResult(i, true, null));
+                    continue;
+                }
+                balances.merge(transfer.getSenderUserId(), transfer.getAmount().negate(), BigDecimal::add);
+                balances.computeIfPresent(transfer.getReceiverUserId(), (userId, balance) -> balance.add(transfer.getAmount()));
+                accepted.add(transfer);
+            }
+            results.add(new WalletTransferResult(i, error == null, error));
+        }
+        for (WalletTransfer transfer : accepted) {
+            ledgerService.post(LedgerEntryType.TRANSFER, transfer.getSenderUserId(), transfer.getReceiverUserId(),
+                    transfer.getAmount(), transfer.getOperationId());
+        }
+        return results;
     }
     
-    public WalletResponse getWalletByUserId(Long userId) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-        return mapToResponseDto(wallet);
+    // STRICT reads the row, BOUNDED_STALENESS may answer from the cache; null uses the endpoint's configured default
+    public WalletResponse getWalletByUserId(Long userId, ReadConsistency consistency) {
+        return readWallet(userId, consistency != null ? consistency : walletConsistency);
     }
     
-    public BigDecimal getBalance(Long userId) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-        return wallet.getBalance();
+    public BigDecimal getBalance(Long userId, ReadConsistency consistency) {
+        return readWallet(userId, consistency != null ? consistency : balanceConsistency).getBalance();
+    }
+    
+    // Balance made up of the ledger entries created before asOf
+    public BigDecimal getBalanceAt(Long userId, LocalDateTime asOf) {
+        requireWallet(userId);
+        return ledgerService.getBalanceAt(userId, asOf);
+    }
+    
+    // Checked before a statement starts streaming, so a bad request still gets an error status
+    public BigDecimal getStatementOpeningBalance(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Statement period must end after it starts");
+        }
+        return getBalanceAt(userId, from);
     }
     
-    // Java Stream: Filter and transform wealthy wallets
+    public void streamStatement(Long userId, LocalDateTime from, LocalDateTime to, BigDecimal openingBalance,
+                                Consumer<LedgerStatementLine> sink) {
+        ledgerService.streamStatement(userId, from, to, openingBalance, sink);
+    }
+    
+    // Filtered, ordered and shown by the snapshot balance column: one query, and every wallet listed has the
+    // balance it was selected by
     public List<WalletResponse> getWealthyWallets(BigDecimal minBalance) {
         return walletRepository.findWalletsAboveBalance(minBalance)
                 .stream()
-                .map(this::mapToResponseDto)
+                .map(wallet -> mapToResponseDto(wallet, wallet.getBalance()))
                 .collect(Collectors.toList());
     }
     
-    // Native SQL usage: Get statistics
+    // Native SQL usage: Get statistics. Balances are as of the latest ledger snapshot run.
     public Map<String, Object> getWalletStatistics() {
         BigDecimal totalBalance = walletRepository.getTotalActiveBalance();
         List<Object[]> statusCounts = walletRepository.countWalletsByStatus();
@@ -113,11 +273,114 @@ public class WalletService {
         );
     }
     
-    private WalletResponse mapToResponseDto(Wallet wallet) {
+    public Map<String, Object> getLockStatistics() {
+        return walletLockManager.getStatistics();
+    }
+    
+    public Map<String, Object> getCacheStatistics() {
+        return walletCache.getStatistics();
+    }
+    
+    public Map<String, Object> getLedgerStatistics() {
+        return ledgerService.getStatistics();
+    }
+    
+    private WalletResponse readWallet(Long userId, ReadConsistency consistency) {
+        if (consistency == ReadConsistency.STRICT) {
+            return loadWallet(userId);
+        }
+        return walletCache.get(userId, this::loadWallet);
+    }
+    
+    private WalletResponse loadWallet(Long userId) {
+        Wallet wallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+        return mapToResponseDto(wallet);
+    }
+    
+    // Stripe locks first, then the transaction: a writer waiting for a busy wallet holds no connection
+    private <T> T lockedTransaction(Long[] userIds, TransactionCallback<T> work) {
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        writeTransaction.setTimeout(writeTimeoutSeconds);
+        return walletLockManager.callLocked(() -> writeTransaction.execute(work), userIds);
+    }
+    
+    // The row lock makes concurrent debits of this wallet, on any instance, see each other's entries
+    private void debit(Long userId, String label, BigDecimal amount, LedgerEntryType type, long toAccount, String reference) {
+        Wallet wallet = walletRepository.findAndLockByUserId(userId)
+                .orElseThrow(() -> new RuntimeException(label + " not found"));
+        if (wallet.getStatus() != WalletStatus.ACTIVE) {
+            throw new RuntimeException(label + " is not active");
+        }
+        if (ledgerService.getBalance(userId).compareTo(amount) < 0) {
+            throw new RuntimeException("Insufficient balance");
+        }
+        ledgerService.post(type, userId, toAccount, amount, reference);
+    }
+    
+    private Wallet requireWallet(Long userId) {
+        return walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+    }
+    
+    private Wallet requireActive(Long userId, String label) {
+        Wallet wallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException(label + " not found"));
+        if (wallet.getStatus() != WalletStatus.ACTIVE) {
+            throw new RuntimeException(label + " is not active");
+        }
+        return wallet;
+    }
+    
+    private static String checkBatchItem(WalletTransfer transfer, Map<Long, WalletStatus> statuses,
+                                         Map<Long, BigDecimal> balances) {
+        Long senderUserId = transfer.getSenderUserId();
+        Long receiverUserId = transfer.getReceiverUserId();
+        BigDecimal amount = transfer.getAmount();
+        if (senderUserId == null || receiverUserId == null || amount == null || amount.signum() <= 0) {
+            return "Invalid transfer";
+        }
+        if (senderUserId.equals(receiverUserId)) {
+            return "Cannot transfer to the same wallet";
+        }
+        
+        WalletStatus senderStatus = statuses.get(senderUserId);
+        if (senderStatus == null) {
+            return "Sender wallet not found";
+        }
+        if (senderStatus != WalletStatus.ACTIVE) {
+            return "Sender wallet is not active";
+        }
+        if (balances.get(senderUserId).compareTo(amount) < 0) {
+            return "Insufficient balance";
+        }
+        WalletStatus receiverStatus = statuses.get(receiverUserId);
+        if (receiverStatus == null) {
+            return "Receiver wallet not found";
+        }
+        if (receiverStatus != WalletStatus.ACTIVE) {
+            return "Receiver wallet is not active";
+        }
+        return null;
+    }
+    
+    // False when the operation was already recorded (applied, reversed or voided) and must not be applied again
+    private boolean recordOperation(String operationId, Long userId, WalletOperationType type, BigDecimal amount) {
+        return operationId == null
+                || walletOperationRepository.insertIfAbsent(operationId, userId, type.name(), amount) == 1;
+    }
+    
+    // Not private: benchmarks/ measures it, ledger balance read included. Single-wallet reads only; lists pass
+    // the balance they already have.
+    WalletResponse mapToResponseDto(Wallet wallet) {
+        return mapToResponseDto(wallet, ledgerService.getBalance(wallet.getUserId()));
+    }
+    
+    private static WalletResponse mapToResponseDto(Wallet wallet, BigDecimal balance) {
         WalletResponse dto = new WalletResponse();
         dto.setId(wallet.getId());
         dto.setUserId(wallet.getUserId());
-        dto.setBalance(wallet.getBalance());
+        dto.setBalance(balance);
         dto.setCurrency(wallet.getCurrency());
         dto.setStatus(wallet.getStatus());
         dto.setCreatedAt(wallet.getCreatedAt());
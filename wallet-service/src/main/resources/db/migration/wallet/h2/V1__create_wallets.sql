@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS wallets (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL,
+    balance    DECIMAL(15,2) NOT NULL,
+    currency   VARCHAR(255) NOT NULL,
+    status     VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_wallets_user_id UNIQUE (user_id)
+);
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS wallet_credit_shards (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id        BIGINT NOT NULL,
+    shard_no       INTEGER NOT NULL,
+    pending_amount DECIMAL(15,2) NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_wallet_credit_shards_user_shard UNIQUE (user_id, shard_no)
+);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_wallets_status_balance ON wallets (status, balance);
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS wallet_operations (
+    operation_id VARCHAR(100) NOT NULL,
+    user_id      BIGINT,
+    type         VARCHAR(10) NOT NULL,
+    amount       DECIMAL(15,2),
+    created_at   TIMESTAMP(6) NOT NULL,
+    reversed_at  TIMESTAMP(6),
+    CONSTRAINT pk_wallet_operations PRIMARY KEY (operation_id)
+);
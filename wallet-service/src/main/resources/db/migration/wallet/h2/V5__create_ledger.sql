@@ -0,0 +1,36 @@
+CREATE TABLE IF NOT EXISTS ledger_entries (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    amount     DECIMAL(15,2) NOT NULL,
+    entry_type VARCHAR(20) NOT NULL,
+    reference  VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_account_created ON ledger_entries (account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_entries_created ON ledger_entries (created_at);
+
+CREATE TABLE IF NOT EXISTS ledger_snapshots (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    cut_at     TIMESTAMP(6) NOT NULL,
+    balance    DECIMAL(19,2) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_ledger_snapshots_account_cut UNIQUE (account_id, cut_at)
+);
+
+UPDATE wallets w SET balance = balance + COALESCE(
+    (SELECT SUM(s.pending_amount) FROM wallet_credit_shards s WHERE s.user_id = w.user_id), 0);
+DROP TABLE IF EXISTS wallet_credit_shards;
+
+INSERT INTO ledger_entries (account_id, amount, entry_type, reference, created_at)
+SELECT w.user_id, w.balance, 'OPENING', CONCAT('OPENING-', w.user_id), CURRENT_TIMESTAMP
+FROM wallets w
+WHERE w.balance <> 0
+  AND NOT EXISTS (SELECT 1 FROM ledger_entries e WHERE e.reference = CONCAT('OPENING-', w.user_id));
+
+INSERT INTO ledger_entries (account_id, amount, entry_type, reference, created_at)
+SELECT -1, -e.amount, e.entry_type, e.reference, e.created_at
+FROM ledger_entries e
+WHERE e.entry_type = 'OPENING' AND e.account_id > 0
+  AND NOT EXISTS (SELECT 1 FROM ledger_entries x WHERE x.reference = e.reference AND x.account_id = -1);
@@ -0,0 +1,7 @@
+-- The clock ledger entries are stamped with and snapshot cuts are taken from: UTC, read from the database, so
+-- every instance and time zone agrees. H2's CURRENT_TIMESTAMP is fixed for a whole transaction, so the
+-- in-memory database reads the JVM's UTC clock instead; it runs in the same process.
+CREATE ALIAS IF NOT EXISTS LEDGER_CLOCK_MILLIS FOR 'java.lang.System.currentTimeMillis';
+
+CREATE VIEW IF NOT EXISTS ledger_clock AS
+SELECT CAST(DATEADD(MILLISECOND, LEDGER_CLOCK_MILLIS(), TIMESTAMP '1970-01-01 00:00:00') AS TIMESTAMP(6)) AS utc_now;
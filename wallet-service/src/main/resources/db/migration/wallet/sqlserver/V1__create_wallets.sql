@@ -0,0 +1,14 @@
+-- Guarded so the script is a no-op on databases created before migrations existed
+IF OBJECT_ID('dbo.wallets', 'U') IS NULL
+BEGIN
+    CREATE TABLE wallets (
+        id         BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        user_id    BIGINT NOT NULL,
+        balance    DECIMAL(15,2) NOT NULL,
+        currency   VARCHAR(255) NOT NULL,
+        status     VARCHAR(255) NOT NULL,
+        created_at DATETIME2(6) NOT NULL,
+        updated_at DATETIME2(6) NOT NULL,
+        CONSTRAINT uk_wallets_user_id UNIQUE (user_id)
+    );
+END;
@@ -0,0 +1,11 @@
+IF OBJECT_ID('dbo.wallet_credit_shards', 'U') IS NULL
+BEGIN
+    CREATE TABLE wallet_credit_shards (
+        id             BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        user_id        BIGINT NOT NULL,
+        shard_no       INT NOT NULL,
+        pending_amount DECIMAL(15,2) NOT NULL,
+        updated_at     DATETIME2(6) NOT NULL,
+        CONSTRAINT uk_wallet_credit_shards_user_shard UNIQUE (user_id, shard_no)
+    );
+END;
@@ -0,0 +1,3 @@
+-- findWalletsAboveBalance / getTotalActiveBalance: ACTIVE wallets by balance
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_wallets_status_balance' AND object_id = OBJECT_ID('dbo.wallets'))
+    CREATE INDEX idx_wallets_status_balance ON wallets (status, balance);
@@ -0,0 +1,15 @@
+-- Debits and credits submitted with a caller-chosen operation id, so a retried request is applied once and an
+-- operation can be reversed exactly once. VOID rows mark ids reversed before they arrived; user_id and amount
+-- are NULL there.
+IF OBJECT_ID('dbo.wallet_operations', 'U') IS NULL
+BEGIN
+    CREATE TABLE wallet_operations (
+        operation_id VARCHAR(100) NOT NULL,
+        user_id      BIGINT NULL,
+        type         VARCHAR(10) NOT NULL,
+        amount       DECIMAL(15,2) NULL,
+        created_at   DATETIME2(6) NOT NULL,
+        reversed_at  DATETIME2(6) NULL,
+        CONSTRAINT pk_wallet_operations PRIMARY KEY (operation_id)
+    );
+END;
@@ -0,0 +1,62 @@
+-- Append-only double-entry ledger. Every balance movement inserts two entries for the same reference whose
+-- amounts sum to zero; amount is what the entry adds to the account's balance. Accounts are wallet user ids,
+-- negative ids are the bank's own accounts (-1 external funds, -2 saga debits and credits in clearing).
+IF OBJECT_ID('dbo.ledger_entries', 'U') IS NULL
+BEGIN
+    CREATE TABLE ledger_entries (
+        id         BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        account_id BIGINT NOT NULL,
+        amount     DECIMAL(15,2) NOT NULL,
+        entry_type VARCHAR(20) NOT NULL,
+        reference  VARCHAR(100) NOT NULL,
+        created_at DATETIME2(6) NOT NULL
+    );
+END;
+
+-- Balance reads: one account's entries since its latest snapshot
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_ledger_entries_account_created' AND object_id = OBJECT_ID('dbo.ledger_entries'))
+    CREATE INDEX idx_ledger_entries_account_created ON ledger_entries (account_id, created_at) INCLUDE (amount);
+
+-- Snapshot job: accounts with entries since its previous cut
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'idx_ledger_entries_created' AND object_id = OBJECT_ID('dbo.ledger_entries'))
+    CREATE INDEX idx_ledger_entries_created ON ledger_entries (created_at) INCLUDE (account_id);
+
+-- balance is the sum of the account's entries created before cut_at; older snapshots are kept
+IF OBJECT_ID('dbo.ledger_snapshots', 'U') IS NULL
+BEGIN
+    CREATE TABLE ledger_snapshots (
+        id         BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        account_id BIGINT NOT NULL,
+        cut_at     DATETIME2(6) NOT NULL,
+        balance    DECIMAL(19,2) NOT NULL,
+        created_at DATETIME2(6) NOT NULL,
+        CONSTRAINT uk_ledger_snapshots_account_cut UNIQUE (account_id, cut_at)
+    );
+END;
+
+-- Credits still pending in shard rows belong to the opening balance; the shard mechanism is replaced by the ledger.
+-- The shards are read under an exclusive table lock held until the migration commits, so an instance still running
+-- the shard code cannot fold or add to a shard between this read and the DROP and have its credit counted twice.
+IF OBJECT_ID('dbo.wallet_credit_shards', 'U') IS NOT NULL
+BEGIN
+    UPDATE w SET w.balance = w.balance + s.pending_amount
+    FROM wallets w
+    JOIN (SELECT user_id, SUM(pending_amount) AS pending_amount
+          FROM wallet_credit_shards WITH (TABLOCKX, HOLDLOCK)
+          GROUP BY user_id) s
+        ON s.user_id = w.user_id;
+    DROP TABLE wallet_credit_shards;
+END;
+
+-- Opening entries: each existing balance moves in from the external account
+INSERT INTO ledger_entries (account_id, amount, entry_type, reference, created_at)
+SELECT w.user_id, w.balance, 'OPENING', CONCAT('OPENING-', w.user_id), CURRENT_TIMESTAMP
+FROM wallets w
+WHERE w.balance <> 0
+  AND NOT EXISTS (SELECT 1 FROM ledger_entries e WHERE e.reference = CONCAT('OPENING-', w.user_id));
+
+INSERT INTO ledger_entries (account_id, amount, entry_type, reference, created_at)
+SELECT -1, -e.amount, e.entry_type, e.reference, e.created_at
+FROM ledger_entries e
+WHERE e.entry_type = 'OPENING' AND e.account_id > 0
+  AND NOT EXISTS (SELECT 1 FROM ledger_entries x WHERE x.reference = e.reference AND x.account_id = -1);
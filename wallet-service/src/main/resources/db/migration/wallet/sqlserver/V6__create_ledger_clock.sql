@@ -0,0 +1,4 @@
+-- The clock ledger entries are stamped with and snapshot cuts are taken from: UTC, read from the database, so
+-- application instances with drifting clocks or non-UTC time zones all agree on it
+IF OBJECT_ID('dbo.ledger_clock', 'V') IS NULL
+    EXEC('CREATE VIEW ledger_clock AS SELECT CAST(SYSUTCDATETIME() AS DATETIME2(6)) AS utc_now');
@@ -0,0 +1,93 @@
+package com.digitalbank.account.repository;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Aggregated-credit wallets kept part of their balance in wallet_credit_shards (V2) until the ledger (V5) took over.
+// A database upgraded across V5 must not lose the credits that were still pending in the shards.
+class WalletMigrationTests {
+
+	private JdbcDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void migrateToShards() {
+		dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:wallet-migration-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		migrate("4");
+	}
+
+	@Test
+	void shardTableHoldsOnePendingRowPerShard() {
+		insertWallet(1L, "10.00");
+		insertShard(1L, 0, "1.00");
+
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'WALLET_CREDIT_SHARDS'",
+				Integer.class)).isEqualTo(1);
+		assertThatThrownBy(() -> insertShard(1L, 0, "2.00"))
+				.hasMessageContaining("UK_WALLET_CREDIT_SHARDS_USER_SHARD");
+	}
+
+	@Test
+	void ledgerFoldsPendingShardCreditsIntoOpeningBalances() {
+		insertWallet(1L, "100.00");
+		insertWallet(2L, "0.00");
+		insertWallet(3L, "0.00");
+		insertShard(1L, 0, "5.00");
+		insertShard(1L, 1, "7.50");
+		insertShard(2L, 0, "3.00");
+		insertShard(2L, 1, "0.00");
+
+		migrate(null);
+
+		assertThat(balance(1L)).isEqualByComparingTo("112.50");
+		assertThat(balance(2L)).isEqualByComparingTo("3.00");
+		assertThat(balance(3L)).isEqualByComparingTo("0.00");
+		assertThat(ledgerBalance(1L)).isEqualByComparingTo("112.50");
+		assertThat(ledgerBalance(2L)).isEqualByComparingTo("3.00");
+		assertThat(ledgerBalance(-1L)).isEqualByComparingTo("-115.50");
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'WALLET_CREDIT_SHARDS'",
+				Integer.class)).isZero();
+	}
+
+	private void migrate(String target) {
+		Flyway.configure()
+				.dataSource(dataSource)
+				.locations("classpath:db/migration/wallet/h2")
+				.target(target == null ? "latest" : target)
+				.load()
+				.migrate();
+	}
+
+	private void insertWallet(Long userId, String balance) {
+		jdbcTemplate.update("INSERT INTO wallets (user_id, balance, currency, status, created_at, updated_at) "
+				+ "VALUES (?, ?, 'USD', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", userId, new BigDecimal(balance));
+	}
+
+	private void insertShard(Long userId, int shardNo, String pending) {
+		jdbcTemplate.update("INSERT INTO wallet_credit_shards (user_id, shard_no, pending_amount, updated_at) "
+				+ "VALUES (?, ?, ?, CURRENT_TIMESTAMP)", userId, shardNo, new BigDecimal(pending));
+	}
+
+	private BigDecimal balance(Long userId) {
+		return jdbcTemplate.queryForObject("SELECT balance FROM wallets WHERE user_id = ?", BigDecimal.class, userId);
+	}
+
+	private BigDecimal ledgerBalance(Long accountId) {
+		return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM ledger_entries WHERE account_id = ?",
+				BigDecimal.class, accountId);
+	}
+
+}
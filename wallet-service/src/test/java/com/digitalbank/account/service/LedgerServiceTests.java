@@ -0,0 +1,202 @@
+package com.digitalbank.account.service;
+
+import com.digitalbank.account.entity.LedgerEntry;
+import com.digitalbank.account.entity.LedgerSnapshot;
+import com.digitalbank.account.model.LedgerStatementLine;
+import com.digitalbank.account.model.WalletCreate;
+import com.digitalbank.account.model.WalletTopup;
+import com.digitalbank.account.model.WalletTransfer;
+import com.digitalbank.account.model.WalletTransferResult;
+import com.digitalbank.account.model.common.LedgerEntryType;
+import com.digitalbank.account.repository.LedgerEntryRepository;
+import com.digitalbank.account.repository.LedgerSnapshotRepository;
+import com.digitalbank.account.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"wallet.ledger.snapshot.lag-ms=0",
+		"wallet.ledger.snapshot.min-entries=3" })
+@Import({ WalletService.class, WalletLockManager.class, LedgerService.class, WalletCache.class })
+class LedgerServiceTests {
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private LedgerService ledgerService;
+
+	@Autowired
+	private LedgerSnapshotRepository ledgerSnapshotRepository;
+
+	@Autowired
+	private LedgerEntryRepository ledgerEntryRepository;
+
+	@Autowired
+	private WalletRepository walletRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createWallets() {
+		createWallet(1L, "100.00");
+		createWallet(2L, "50.00");
+		createWallet(3L, null);
+	}
+
+	@Test
+	void everyMovementIsBalancedByItsCounterEntry() {
+		walletService.transfer(transfer(1L, 2L, "30.00"));
+		walletService.deductBalance(2L, new BigDecimal("20.00"), "T1-debit");
+		walletService.addBalance(3L, new BigDecimal("20.00"), "T1-credit");
+
+		assertThat(ledgerService.getBalance(1L)).isEqualByComparingTo("70.00");
+		assertThat(ledgerService.getBalance(2L)).isEqualByComparingTo("60.00");
+		assertThat(ledgerService.getBalance(3L)).isEqualByComparingTo("20.00");
+		assertThat(ledgerService.getBalance(LedgerService.CLEARING_ACCOUNT)).isEqualByComparingTo("0.00");
+		assertThat(ledgerService.getBalance(LedgerService.EXTERNAL_ACCOUNT)).isEqualByComparingTo("-150.00");
+		assertThat(jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM (SELECT reference FROM ledger_entries GROUP BY reference HAVING SUM(amount) <> 0) t",
+				Integer.class)).isZero();
+	}
+
+	@Test
+	void overdraftIsRejectedWithoutEntries() {
+		assertThatThrownBy(() -> walletService.transfer(transfer(2L, 1L, "50.01")))
+				.hasMessage("Insufficient balance");
+		assertThat(ledgerService.getBalance(2L)).isEqualByComparingTo("50.00");
+	}
+
+	@Test
+	void batchChecksItemsAgainstRunningBalances() {
+		List<WalletTransferResult> results = walletService.transferBatch(List.of(
+				transfer(2L, 3L, "40.00"),
+				transfer(2L, 3L, "20.00"),
+				transfer(3L, 1L, "40.00"),
+				transfer(1L, 9L, "10.00")));
+
+		assertThat(results).extracting(WalletTransferResult::isSuccess).containsExactly(true, false, true, false);
+		assertThat(results.get(1).getError()).isEqualTo("Insufficient balance");
+		assertThat(results.get(3).getError()).isEqualTo("Receiver wallet not found");
+		assertThat(ledgerService.getBalance(1L)).isEqualByComparingTo("140.00");
+		assertThat(ledgerService.getBalance(2L)).isEqualByComparingTo("10.00");
+		assertThat(ledgerService.getBalance(3L)).isEqualByComparingTo("0.00");
+	}
+
+	@Test
+	void balanceIsSnapshotPlusLaterEntries() {
+		walletService.transfer(transfer(1L, 3L, "10.00"));
+		walletService.transfer(transfer(1L, 3L, "10.00"));
+		ledgerService.takeSnapshots();
+
+		assertThat(ledgerSnapshotRepository.findTopByAccountIdOrderByCutAtDesc(1L)).get()
+				.satisfies(snapshot -> assertThat(snapshot.getBalance()).isEqualByComparingTo("80.00"));
+		// Too few entries for a snapshot, but the balance column still moves to the cut
+		assertThat(ledgerSnapshotRepository.findTopByAccountIdOrderByCutAtDesc(3L)).isEmpty();
+		assertThat(walletRepository.findByUserId(3L).get().getBalance()).isEqualByComparingTo("20.00");
+
+		walletService.transfer(transfer(1L, 2L, "5.00"));
+		assertThat(ledgerService.getBalance(1L)).isEqualByComparingTo("75.00");
+		// Lists select and show the same snapshot value, which catches up at the next run
+		assertThat(walletService.getWealthyWallets(new BigDecimal("80.00")))
+				.extracting(wallet -> wallet.getBalance().toPlainString()).containsExactly("80.00");
+		ledgerService.takeSnapshots();
+		assertThat(walletService.getWealthyWallets(new BigDecimal("80.00"))).isEmpty();
+		assertThat(walletService.getWealthyWallets(new BigDecimal("75.00")))
+				.extracting(wallet -> wallet.getBalance().toPlainString()).containsExactly("75.00");
+	}
+
+	@Test
+	void entriesAreStampedWithTheDatabaseUtcClock() {
+		LocalDateTime before = ledgerEntryRepository.utcNow();
+		walletService.transfer(transfer(1L, 2L, "10.00"));
+
+		assertThat(before).isCloseTo(LocalDateTime.now(ZoneOffset.UTC), within(5, ChronoUnit.SECONDS));
+		assertThat(ledgerEntryRepository.findAll()).extracting(LedgerEntry::getCreatedAt)
+				.filteredOn(createdAt -> !createdAt.isBefore(before)).hasSize(2);
+	}
+
+	// A clock that stepped back would stamp the entry under a cut already summed; it is lifted to the cut instead
+	@Test
+	void entryPostedBelowTheLatestCutStillCounts() {
+		LocalDateTime cut = ledgerEntryRepository.utcNow().plusHours(1);
+		ledgerSnapshotRepository.save(new LedgerSnapshot(null, 1L, cut, new BigDecimal("100.00"), cut));
+
+		walletService.transfer(transfer(1L, 2L, "30.00"));
+
+		assertThat(ledgerService.getBalance(1L)).isEqualByComparingTo("70.00");
+		assertThat(ledgerService.getBalance(2L)).isEqualByComparingTo("80.00");
+		assertThat(ledgerEntryRepository.findAll()).filteredOn(entry -> entry.getEntryType() == LedgerEntryType.TRANSFER)
+				.extracting(LedgerEntry::getCreatedAt).containsOnly(cut);
+	}
+
+	@Test
+	void pastBalanceIgnoresLaterSnapshotsAndEntries() {
+		walletService.transfer(transfer(1L, 2L, "10.00"));
+		LocalDateTime afterFirst = LocalDateTime.now(ZoneOffset.UTC);
+		walletService.transfer(transfer(1L, 2L, "10.00"));
+		ledgerService.takeSnapshots();
+		walletService.transfer(transfer(1L, 2L, "5.00"));
+
+		assertThat(walletService.getBalanceAt(1L, afterFirst)).isEqualByComparingTo("90.00");
+		assertThat(walletService.getBalanceAt(1L, LocalDateTime.now(ZoneOffset.UTC))).isEqualByComparingTo("75.00");
+		assertThat(walletService.getBalanceAt(1L, afterFirst.minusDays(1))).isEqualByComparingTo("0.00");
+	}
+
+	@Test
+	void statementRunsFromOpeningBalance() {
+		walletService.transfer(transfer(1L, 2L, "10.00"));
+		LocalDateTime from = LocalDateTime.now(ZoneOffset.UTC);
+		walletService.transfer(transfer(1L, 2L, "20.00"));
+		walletService.transfer(transfer(2L, 1L, "5.00"));
+		LocalDateTime to = LocalDateTime.now(ZoneOffset.UTC);
+
+		BigDecimal opening = walletService.getStatementOpeningBalance(1L, from, to);
+		List<LedgerStatementLine> lines = new ArrayList<>();
+		walletService.streamStatement(1L, from, to, opening, lines::add);
+
+		assertThat(opening).isEqualByComparingTo("90.00");
+		assertThat(lines).extracting(line -> line.getAmount().toPlainString()).containsExactly("-20.00", "5.00");
+		assertThat(lines).extracting(line -> line.getBalance().toPlainString()).containsExactly("70.00", "75.00");
+		assertThatThrownBy(() -> walletService.getStatementOpeningBalance(1L, to, from))
+				.hasMessage("Statement period must end after it starts");
+	}
+
+	private void createWallet(Long userId, String balance) {
+		WalletCreate create = new WalletCreate();
+		create.setUserId(userId);
+		walletService.createWallet(create);
+		if (balance != null) {
+			WalletTopup topup = new WalletTopup();
+			topup.setUserId(userId);
+			topup.setAmount(new BigDecimal(balance));
+			walletService.topUp(topup);
+		}
+	}
+
+	private static WalletTransfer transfer(Long sender, Long receiver, String amount) {
+		WalletTransfer transfer = new WalletTransfer();
+		transfer.setSenderUserId(sender);
+		transfer.setReceiverUserId(receiver);
+		transfer.setAmount(new BigDecimal(amount));
+		return transfer;
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.digitalbank.account.service;
+
+import com.digitalbank.account.model.WalletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletCacheTests {
+
+	private final WalletCache cache = new WalletCache(100, 60_000);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void readsThroughOnceUntilEvicted() {
+		assertEquals(new BigDecimal("10"), cache.get(1L, this::load).getBalance());
+		assertEquals(new BigDecimal("10"), cache.get(1L, this::load).getBalance());
+		assertEquals(1, loads.get());
+
+		cache.evictAfterCommit(1L);
+		cache.get(1L, this::load);
+		assertEquals(2, loads.get());
+
+		Map<String, Object> stats = cache.getStatistics();
+		assertEquals(1L, stats.get("hits"));
+		assertEquals(2L, stats.get("misses"));
+	}
+
+	@Test
+	void evictionWaitsForTransactionCompletion() {
+		cache.get(1L, this::load);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.evictAfterCommit(1L);
+			cache.get(1L, this::load);
+			assertEquals(1, loads.get());
+
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		cache.get(1L, this::load);
+		assertEquals(2, loads.get());
+	}
+
+	private WalletResponse load(Long userId) {
+		loads.incrementAndGet();
+		WalletResponse wallet = new WalletResponse();
+		wallet.setUserId(userId);
+		wallet.setBalance(new BigDecimal("10"));
+		return wallet;
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.digitalbank.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletLockManagerTests {
+
+	private final WalletLockManager lockManager = new WalletLockManager(16, 2000);
+
+	@Test
+	void busyWalletTimesOutAndFailedWorkReleasesItsStripes() throws Exception {
+		WalletLockManager shortWait = new WalletLockManager(16, 50);
+		CountDownLatch held = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> holder = pool.submit(() -> shortWait.callLocked(() -> {
+				held.countDown();
+				await(release);
+				return null;
+			}, 1L));
+			held.await(5, TimeUnit.SECONDS);
+
+			RuntimeException busy = assertThrows(RuntimeException.class, () -> shortWait.callLocked(() -> 1, 1L));
+			assertEquals("Wallet is busy, please retry", busy.getMessage());
+			release.countDown();
+			holder.get(5, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> shortWait.callLocked(() -> {
+			throw new IllegalArgumentException();
+		}, 1L, 2L));
+		assertEquals(2, shortWait.callLocked(() -> 2, 2L, 1L));
+	}
+
+	@Test
+	void opposingTwoWalletLocksDoNotDeadlock() throws Exception {
+		AtomicInteger inside = new AtomicInteger();
+		AtomicInteger overlaps = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<?> forward = pool.submit(() -> runLocked(1L, 2L, inside, overlaps));
+			Future<?> backward = pool.submit(() -> runLocked(2L, 1L, inside, overlaps));
+			forward.get(30, TimeUnit.SECONDS);
+			backward.get(30, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertEquals(0, overlaps.get());
+		Map<String, Object> stats = lockManager.getStatistics();
+		assertEquals(16, stats.get("stripeCount"));
+		assertFalse(((List<?>) stats.get("stripes")).isEmpty());
+	}
+
+	private void runLocked(Long first, Long second, AtomicInteger inside, AtomicInteger overlaps) {
+		for (int i = 0; i < 2_000; i++) {
+			lockManager.callLocked(() -> {
+				if (inside.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				return inside.decrementAndGet();
+			}, first, second);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
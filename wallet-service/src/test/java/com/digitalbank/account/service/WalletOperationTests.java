@@ -0,0 +1,133 @@
+package com.digitalbank.account.service;
+
+import com.digitalbank.account.model.WalletCreate;
+import com.digitalbank.account.model.WalletTopup;
+import com.digitalbank.account.model.WalletTransfer;
+import com.digitalbank.account.model.WalletTransferResult;
+import com.digitalbank.account.model.common.ReadConsistency;
+import com.digitalbank.account.repository.WalletOperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ WalletService.class, WalletLockManager.class, LedgerService.class, WalletCache.class })
+class WalletOperationTests {
+
+	@Autowired
+	private WalletService walletService;
+
+	@MockitoSpyBean
+	private WalletOperationRepository walletOperationRepository;
+
+	@BeforeEach
+	void createWallets() {
+		createWallet(1L, "100.00");
+		createWallet(2L, "0.00");
+	}
+
+	@Test
+	void repeatedOperationIdIsAppliedOnce() {
+		walletService.deductBalance(1L, new BigDecimal("30.00"), "T1-debit");
+		walletService.deductBalance(1L, new BigDecimal("30.00"), "T1-debit");
+		walletService.addBalance(2L, new BigDecimal("30.00"), "T1-credit");
+		walletService.addBalance(2L, new BigDecimal("30.00"), "T1-credit");
+
+		assertThat(balance(1L)).isEqualByComparingTo("70.00");
+		assertThat(balance(2L)).isEqualByComparingTo("30.00");
+	}
+
+	@Test
+	void operationsWithoutIdAreNotDeduplicated() {
+		walletService.deductBalance(1L, new BigDecimal("10.00"), null);
+		walletService.deductBalance(1L, new BigDecimal("10.00"), null);
+
+		assertThat(balance(1L)).isEqualByComparingTo("80.00");
+	}
+
+	@Test
+	void reversalUndoesOperationOnce() {
+		walletService.deductBalance(1L, new BigDecimal("40.00"), "T2-debit");
+		walletService.addBalance(2L, new BigDecimal("40.00"), "T2-credit");
+
+		walletService.reverseOperation("T2-credit");
+		walletService.reverseOperation("T2-debit");
+		walletService.reverseOperation("T2-debit");
+
+		assertThat(balance(1L)).isEqualByComparingTo("100.00");
+		assertThat(balance(2L)).isEqualByComparingTo("0.00");
+	}
+
+	@Test
+	void reversalBeforeOperationVoidsIt() {
+		walletService.reverseOperation("T3-debit");
+		walletService.deductBalance(1L, new BigDecimal("50.00"), "T3-debit");
+
+		assertThat(balance(1L)).isEqualByComparingTo("100.00");
+	}
+
+	@Test
+	void resentBatchOnlyAppliesNewItems() {
+		walletService.transferBatch(List.of(transfer("B1", "60.00"), transfer("B2", "60.00")));
+		// B1 was applied and is skipped, B2 was rejected and is tried again, B3 is applied once
+		List<WalletTransferResult> results = walletService.transferBatch(List.of(
+				transfer("B1", "60.00"), transfer("B2", "30.00"), transfer("B3", "10.00"), transfer("B3", "10.00")));
+
+		assertThat(results).extracting(WalletTransferResult::isSuccess).containsExactly(true, true, true, true);
+		assertThat(balance(1L)).isEqualByComparingTo("0.00");
+		assertThat(balance(2L)).isEqualByComparingTo("100.00");
+		assertThatThrownBy(() -> walletService.reverseOperation("B1")).hasMessage("Transfers cannot be reversed");
+	}
+
+	@Test
+	void batchItemVoidedAfterTheAppliedIdsWereReadMovesNoMoney() {
+		walletService.reverseOperation("B4");
+		// The batch's read of applied ids misses the VOID, as when it commits in between
+		doReturn(List.of()).when(walletOperationRepository).findAllById(any());
+
+		List<WalletTransferResult> results = walletService.transferBatch(List.of(
+				transfer("B4", "60.00"), transfer("B5", "60.00")));
+
+		assertThat(results).extracting(WalletTransferResult::isSuccess).containsExactly(true, true);
+		assertThat(results).extracting(WalletTransferResult::getError).containsOnlyNulls();
+		assertThat(balance(1L)).isEqualByComparingTo("40.00");
+		assertThat(balance(2L)).isEqualByComparingTo("60.00");
+	}
+
+	private static WalletTransfer transfer(String operationId, String amount) {
+		WalletTransfer transfer = new WalletTransfer();
+		transfer.setSenderUserId(1L);
+		transfer.setReceiverUserId(2L);
+		transfer.setAmount(new BigDecimal(amount));
+		transfer.setOperationId(operationId);
+		return transfer;
+	}
+
+	private BigDecimal balance(Long userId) {
+		return walletService.getBalance(userId, ReadConsistency.STRICT);
+	}
+
+	private void createWallet(Long userId, String balance) {
+		WalletCreate create = new WalletCreate();
+		create.setUserId(userId);
+		walletService.createWallet(create);
+		if (new BigDecimal(balance).signum() > 0) {
+			WalletTopup topup = new WalletTopup();
+			topup.setUserId(userId);
+			topup.setAmount(new BigDecimal(balance));
+			walletService.topUp(topup);
+		}
+	}
+
+}